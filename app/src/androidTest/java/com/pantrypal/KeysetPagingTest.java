@@ -0,0 +1,124 @@
+package com.pantrypal;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.pantrypal.data.dao.RecipeDao;
+import com.pantrypal.data.database.PantrypalDatabase;
+import com.pantrypal.data.model.DietaryTags;
+import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.RecipeSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests that keyset page queries walk every row, including rows whose sort
+ * key is NULL and rows the browse filters let through
+ */
+@RunWith(AndroidJUnit4.class)
+public class KeysetPagingTest {
+
+    private PantrypalDatabase database;
+    private RecipeDao recipeDao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PantrypalDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        recipeDao = database.recipeDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testTopRecipePagesFilterCategoryIgnoringCase() {
+        // Arrange
+        recipeDao.upsertAll(Arrays.asList(
+                recipe(1, "Dinner", 90.0), recipe(2, "Lunch", 80.0), recipe(3, "dinner", 80.0),
+                recipe(4, "Beef Dinner", 70.0), recipe(5, "DINNER", 60.0)));
+
+        // Act
+        List<Integer> ids = topRecipeIds("Dinner", 0, null);
+
+        // Assert
+        assertEquals(Arrays.asList(1, 3, 5), ids);
+    }
+
+    @Test
+    public void testTopRecipePagesFilterDiet() {
+        // Arrange
+        recipeDao.upsertAll(Arrays.asList(
+                recipe(1, "Dinner", 90.0), recipe(2, "Fish Dinner", 80.0), recipe(3, "Lunch", 80.0),
+                recipe(4, "Vegetarian Lunch", 80.0), recipe(5, "Chicken Dinner", 70.0), recipe(6, null, 60.0)));
+
+        // Act
+        List<Integer> ids = topRecipeIds(null, DietaryTags.VEGETARIAN, null);
+
+        // Assert
+        assertEquals(Arrays.asList(1, 4, 3, 5), ids);
+    }
+
+    @Test
+    public void testFavoritePagesIncludeRecipesWithoutName() {
+        // Arrange
+        recipeDao.upsertAll(Arrays.asList(
+                favorite(1, "Stew"), favorite(2, null), favorite(3, "Curry"), favorite(4, null)));
+
+        // Act
+        List<Integer> ids = new ArrayList<>();
+        List<RecipeSummary> page = recipeDao.getFavoriteRecipesPage(1);
+        while (!page.isEmpty()) {
+            for (RecipeSummary recipe : page) {
+                ids.add(recipe.getId());
+            }
+            RecipeSummary last = page.get(page.size() - 1);
+            page = recipeDao.getFavoriteRecipesPageAfter(last.getName(), last.getId(), 1);
+        }
+
+        // Assert
+        assertEquals(Arrays.asList(2, 4, 3, 1), ids);
+    }
+
+    /**
+     * Walk the filtered top recipes one row per page
+     */
+    private List<Integer> topRecipeIds(String category, int dietTag, String dietKeyword) {
+        List<Integer> ids = new ArrayList<>();
+        List<RecipeSummary> page = recipeDao.getTopRecipesPage(category, dietTag, dietKeyword, 1);
+        while (!page.isEmpty()) {
+            for (RecipeSummary recipe : page) {
+                ids.add(recipe.getId());
+            }
+            RecipeSummary last = page.get(page.size() - 1);
+            page = recipeDao.getTopRecipesPageAfter(category, dietTag, dietKeyword,
+                    last.getMatchPercentage(), last.getId(), 1);
+        }
+        return ids;
+    }
+
+    private static Recipe recipe(int id, String category, double matchPercentage) {
+        return new Recipe(id, "Recipe " + id, "", "", category, 30, "Easy", "[]", "[]", "{}", 2, 400,
+                false, matchPercentage);
+    }
+
+    private static Recipe favorite(int id, String name) {
+        return new Recipe(id, name, "", "", "Dinner", 30, "Easy", "[]", "[]", "{}", 2, 400, true, 0.0);
+    }
+}
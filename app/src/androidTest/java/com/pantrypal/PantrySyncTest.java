@@ -0,0 +1,141 @@
+package com.pantrypal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.pantrypal.data.dao.PantryItemDao;
+import com.pantrypal.data.database.PantrypalDatabase;
+import com.pantrypal.data.model.PantryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * Tests for applying Firestore document changes to Room through
+ * PantryItemDao.applyRemoteChanges
+ */
+@RunWith(AndroidJUnit4.class)
+public class PantrySyncTest {
+
+    private static final String USER_ID = "user-1";
+
+    private PantrypalDatabase database;
+    private PantryItemDao pantryItemDao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PantrypalDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        pantryItemDao = database.pantryItemDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testUnchangedItemsAreNotWritten() {
+        // Arrange
+        pantryItemDao.upsertAll(Arrays.asList(item("a", "Rice", 1000L), item("b", "Beans", 1000L)));
+
+        // Act
+        int written = pantryItemDao.applyRemoteChanges(USER_ID,
+                Arrays.asList(item("a", "Rice", 1000L), item("b", "Black beans", 2000L)),
+                Collections.emptyList(), false);
+
+        // Assert
+        assertEquals(1, written);
+        assertEquals("Black beans", pantryItemDao.getItemByIdSync("b").getIngredientName());
+    }
+
+    @Test
+    public void testRemovedItemsAreDeleted() {
+        // Arrange
+        pantryItemDao.upsertAll(Arrays.asList(item("a", "Rice", 1000L), item("b", "Beans", 1000L)));
+
+        // Act
+        int written = pantryItemDao.applyRemoteChanges(USER_ID,
+                Collections.emptyList(), Collections.singletonList("a"), false);
+
+        // Assert
+        assertEquals(1, written);
+        assertNull(pantryItemDao.getItemByIdSync("a"));
+        assertNotNull(pantryItemDao.getItemByIdSync("b"));
+    }
+
+    @Test
+    public void testCompleteSnapshotDeletesItemsMissingRemotely() {
+        // Arrange
+        pantryItemDao.upsertAll(Arrays.asList(syncedItem("a", "Rice", 1000L), syncedItem("b", "Beans", 1000L)));
+
+        // Act
+        int written = pantryItemDao.applyRemoteChanges(USER_ID,
+                Arrays.asList(item("a", "Rice", 1000L), item("c", "Lentils", 1000L)),
+                Collections.emptyList(), true);
+
+        // Assert
+        assertEquals(2, written);
+        assertNull(pantryItemDao.getItemByIdSync("b"));
+        assertNotNull(pantryItemDao.getItemByIdSync("c"));
+    }
+
+    @Test
+    public void testCompleteSnapshotKeepsItemsNeverSynced() {
+        // Arrange: b was saved locally but its Firestore write failed
+        pantryItemDao.upsertAll(Arrays.asList(syncedItem("a", "Rice", 1000L), item("b", "Beans", 2000L)));
+
+        // Act
+        int written = pantryItemDao.applyRemoteChanges(USER_ID,
+                Collections.singletonList(item("a", "Rice", 1000L)), Collections.emptyList(), true);
+
+        // Assert
+        assertEquals(0, written);
+        assertNotNull(pantryItemDao.getItemByIdSync("b"));
+        assertFalse(pantryItemDao.getItemByIdSync("b").isSynced());
+    }
+
+    @Test
+    public void testItemsSeenRemotelyAreMarkedSynced() {
+        // Arrange
+        pantryItemDao.upsertAll(Arrays.asList(item("a", "Rice", 1000L), item("b", "Beans", 1000L)));
+
+        // Act
+        pantryItemDao.applyRemoteChanges(USER_ID,
+                Arrays.asList(item("a", "Rice", 1000L), item("b", "Black beans", 2000L)),
+                Collections.emptyList(), false);
+
+        // Assert
+        assertTrue(pantryItemDao.getItemByIdSync("a").isSynced());
+        assertTrue(pantryItemDao.getItemByIdSync("b").isSynced());
+    }
+
+    private static PantryItem syncedItem(String id, String name, long updatedAt) {
+        PantryItem item = item(id, name, updatedAt);
+        item.setSynced(true);
+        return item;
+    }
+
+    private static PantryItem item(String id, String name, long updatedAt) {
+        PantryItem item = new PantryItem(id, USER_ID, name, "Pantry", "1", "bag", null, "", "");
+        item.setUpdatedAt(new Date(updatedAt));
+        return item;
+    }
+}
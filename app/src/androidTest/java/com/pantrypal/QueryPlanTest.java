@@ -0,0 +1,195 @@
+package com.pantrypal;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.pantrypal.data.dao.RecipeDao;
+import com.pantrypal.data.database.PantrypalDatabase;
+import com.pantrypal.data.model.DietaryTags;
+import com.pantrypal.data.model.RecipeSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query plan regression tests for the hot Room queries
+ *
+ * Each query is the SQL of a PantryItemDao / RecipeDao method. A query fails
+ * if SQLite plans a full table scan or sorts through a temporary B-tree,
+ * which means an index it relied on is gone or no longer matches.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+
+    private PantrypalDatabase database;
+    private SupportSQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PantrypalDatabase.class).build();
+        db = database.getOpenHelper().getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    // PantryItemDao
+
+    @Test
+    public void testGetAllItemsByUserUsesIndex() {
+        assertIndexed("SELECT * FROM pantry_items WHERE userId = ? ORDER BY ingredientName ASC",
+                "user-1");
+    }
+
+    @Test
+    public void testGetItemsByCategoryUsesIndex() {
+        assertIndexed("SELECT * FROM pantry_items WHERE userId = ? AND category = ? ORDER BY ingredientName ASC",
+                "user-1", "Vegetables");
+    }
+
+    @Test
+    public void testSearchItemsUsesIndex() {
+        assertIndexed("SELECT * FROM pantry_items WHERE userId = ? AND ingredientName LIKE '%' || ? || '%'",
+                "user-1", "rice");
+    }
+
+    @Test
+    public void testGetExpiringItemsUsesIndex() {
+        assertIndexed("SELECT * FROM pantry_items WHERE userId = ? AND expirationDate <= ?",
+                "user-1", 1700000000000L);
+    }
+
+    // RecipeDao
+
+    @Test
+    public void testGetRecipeByIdUsesPrimaryKey() {
+        assertIndexed("SELECT * FROM recipes WHERE id = ?", 1);
+    }
+
+    @Test
+    public void testGetFavoriteRecipesUsesIndex() {
+        assertIndexed("SELECT * FROM recipes WHERE isFavorite = 1 ORDER BY name ASC");
+    }
+
+    @Test
+    public void testGetFavoritesCountUsesIndex() {
+        assertIndexed("SELECT COUNT(*) FROM recipes WHERE isFavorite = 1");
+    }
+
+    @Test
+    public void testGetRecipesByCategoryUsesIndex() {
+        assertIndexed("SELECT * FROM recipes WHERE category = ? ORDER BY matchPercentage DESC LIMIT ?",
+                "Dinner", 20);
+    }
+
+    @Test
+    public void testGetRecipesInCategoryUsesIndex() {
+        assertIndexed("SELECT * FROM recipes WHERE category = ?", "Dinner");
+    }
+
+    @Test
+    public void testGetTopRecipesUsesIndex() {
+        assertIndexed("SELECT * FROM recipes ORDER BY matchPercentage DESC LIMIT ?", 30);
+    }
+
+    @Test
+    public void testGetTopRecipesPageAfterUsesIndex() {
+        // Named parameters are numbered by first use: afterMatch, afterId,
+        // category, dietTag, dietKeyword, limit
+        String sql = "SELECT " + RecipeSummary.COLUMNS + " FROM recipes WHERE matchPercentage <= :afterMatch "
+                + "AND (matchPercentage < :afterMatch OR id < :afterId) AND " + RecipeDao.BROWSE_FILTER + " "
+                + "ORDER BY matchPercentage DESC, id DESC LIMIT :limit";
+        assertIndexed(sql, 80.0, 12, null, 0, null, 30);
+        assertIndexed(sql, 80.0, 12, "Dinner", DietaryTags.VEGAN, null, 30);
+    }
+
+    @Test
+    public void testGetFavoriteRecipesPageAfterUsesIndex() {
+        assertIndexed("SELECT " + RecipeSummary.COLUMNS + " FROM recipes WHERE isFavorite = 1 AND name >= ? "
+                + "AND (name > ? OR id > ?) ORDER BY name ASC, id ASC LIMIT ?",
+                "Curry", "Curry", 12, 30);
+    }
+
+    @Test
+    public void testGetBestPantryMatchesOnlyVisitsRecipesUsingMatchedNames() {
+        // Substring matching reads each distinct ingredient name once, from the
+        // name index; ranking by a computed ratio sorts only the candidates
+        assertNoFullScan("WITH matched(name) AS ("
+                + "SELECT scorable.name FROM "
+                + "(SELECT DISTINCT name FROM recipe_ingredients WHERE rawText LIKE '{%') AS scorable "
+                + "WHERE EXISTS (SELECT 1 FROM pantry_items WHERE pantry_items.userId = ? "
+                + "AND (instr(scorable.name, lower(pantry_items.ingredientName)) > 0 "
+                + "OR instr(lower(pantry_items.ingredientName), scorable.name) > 0))) "
+                + "SELECT recipes.*, COUNT(*) AS totalIngredients, "
+                + "SUM(recipe_ingredients.name IN (SELECT name FROM matched)) AS matchedIngredients "
+                + "FROM recipes JOIN recipe_ingredients ON recipe_ingredients.recipeId = recipes.id "
+                + "WHERE recipes.id IN (SELECT recipeId FROM recipe_ingredients WHERE name IN (SELECT name FROM matched)) "
+                + "GROUP BY recipes.id "
+                + "HAVING SUM(recipe_ingredients.rawText NOT LIKE '{%') = 0 "
+                + "ORDER BY CAST(matchedIngredients AS REAL) / totalIngredients DESC, "
+                + "recipes.matchPercentage DESC LIMIT ?",
+                "user-1", 30);
+    }
+
+    /**
+     * Fail if the plan of a query has a full table scan or a temp B-tree sort
+     */
+    private void assertIndexed(String sql, Object... args) {
+        List<String> plan = explain(sql, args);
+        assertFalse("Empty query plan for: " + sql, plan.isEmpty());
+        for (String step : plan) {
+            boolean fullScan = step.startsWith("SCAN ") && !step.contains(" USING ");
+            assertFalse("Full table scan (" + step + ") in: " + sql, fullScan);
+            assertFalse("Temp B-tree sort (" + step + ") in: " + sql, step.contains("USE TEMP B-TREE"));
+        }
+        assertTrue(plan.toString(), plan.stream().anyMatch(step -> step.contains(" USING ")));
+    }
+
+    /**
+     * Fail if the plan of a query has a full table scan. Scans of a subquery
+     * or CTE the query already narrowed are allowed.
+     */
+    private void assertNoFullScan(String sql, Object... args) {
+        List<String> plan = explain(sql, args);
+        assertFalse("Empty query plan for: " + sql, plan.isEmpty());
+        for (String step : plan) {
+            boolean fullScan = step.startsWith("SCAN ") && !step.contains(" USING ")
+                    && isTable(step.replaceFirst("^SCAN (TABLE )?", "").split(" ")[0]);
+            assertFalse("Full table scan (" + step + ") in: " + sql, fullScan);
+        }
+    }
+
+    private boolean isTable(String name) {
+        try (Cursor cursor = db.query("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new Object[]{name})) {
+            return cursor.moveToNext();
+        }
+    }
+
+    private List<String> explain(String sql, Object... args) {
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detail));
+            }
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,93 @@
+package com.pantrypal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.pantrypal.data.database.FtsQuery;
+import com.pantrypal.data.database.PantrypalDatabase;
+import com.pantrypal.data.model.Recipe;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for what the recipes_fts full-text index matches
+ */
+@RunWith(AndroidJUnit4.class)
+public class RecipeSearchTest {
+
+    private PantrypalDatabase database;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PantrypalDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        database.recipeDao().upsertAll(Arrays.asList(
+                recipe(1, "Pilaf", "[{\"name\":\"Basmati Rice\",\"quantity\":\"2\",\"unit\":\"cups\"}]"),
+                recipe(2, "Stew", "[\"500g chicken\", \"2 onions\"]")));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testSearchMatchesIngredientNames() {
+        // Assert
+        assertEquals(Arrays.asList(1), search("basm"));
+        assertEquals(Arrays.asList(2), search("chick"));
+    }
+
+    @Test
+    public void testSearchIgnoresIngredientJsonKeys() {
+        // Assert
+        assertTrue(search("na").isEmpty());
+        assertTrue(search("quantity").isEmpty());
+        assertTrue(search("unit").isEmpty());
+    }
+
+    @Test
+    public void testSearchFollowsIngredientEdits() {
+        // Arrange
+        Recipe pilaf = recipe(1, "Pilaf", "[{\"name\":\"Saffron\"}]");
+
+        // Act
+        database.recipeDao().update(pilaf);
+
+        // Assert
+        assertTrue(search("basm").isEmpty());
+        assertEquals(Arrays.asList(1), search("saff"));
+    }
+
+    private List<Integer> search(String query) {
+        List<Integer> ids = new ArrayList<>();
+        try (Cursor cursor = database.getOpenHelper().getReadableDatabase().query(
+                "SELECT rowid FROM recipes_fts WHERE recipes_fts MATCH ? ORDER BY rowid",
+                new Object[] {FtsQuery.prefixMatch(query)})) {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getInt(0));
+            }
+        }
+        return ids;
+    }
+
+    private static Recipe recipe(int id, String name, String ingredients) {
+        return new Recipe(id, name, "", "", "Dinner", 30, "Easy", ingredients, "[]", "{}", 2, 400, false, 0.0);
+    }
+}
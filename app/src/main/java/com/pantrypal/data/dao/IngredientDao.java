@@ -1,5 +1,6 @@
 package com.pantrypal.data.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -22,14 +23,30 @@ public interface IngredientDao {
     void delete(Ingredient ingredient);
 
     @Query("SELECT * FROM ingredients ORDER BY name ASC")
-    List<Ingredient> getAllIngredients();
+    LiveData<List<Ingredient>> getAllIngredients();
+
+    /**
+     * Every ingredient name, for seeding IngredientDictionary
+     */
+    @Query("SELECT name FROM ingredients")
+    List<String> getAllNames();
 
     @Query("SELECT * FROM ingredients WHERE category = :category ORDER BY name ASC")
-    List<Ingredient> getIngredientsByCategory(String category);
+    LiveData<List<Ingredient>> getIngredientsByCategory(String category);
 
     @Query("SELECT * FROM ingredients WHERE name LIKE '%' || :query || '%'")
-    List<Ingredient> searchIngredients(String query);
+    LiveData<List<Ingredient>> searchIngredients(String query);
+
+    /**
+     * Full-text search; match is an FtsQuery expression. Names starting with
+     * namePrefix come first, then ingredients with more term hits.
+     */
+    @Query("SELECT ingredients.* FROM ingredients JOIN ingredients_fts ON ingredients.id = ingredients_fts.rowid "
+            + "WHERE ingredients_fts MATCH :match "
+            + "ORDER BY ingredients.name LIKE :namePrefix || '%' DESC, length(offsets(ingredients_fts)) DESC, ingredients.name ASC "
+            + "LIMIT :limit")
+    LiveData<List<Ingredient>> searchIngredientsFts(String match, String namePrefix, int limit);
 
     @Query("SELECT DISTINCT category FROM ingredients")
-    List<String> getAllCategories();
+    LiveData<List<String>> getAllCategories();
 }
\ No newline at end of file
@@ -5,11 +5,16 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
 import com.pantrypal.data.model.PantryItem;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Dao
 public interface PantryItemDao {
@@ -22,6 +27,75 @@ public interface PantryItemDao {
     @Delete
     void delete(PantryItem pantryItem);
 
+    /**
+     * Insert, or update the row with the same id
+     */
+    @Upsert
+    void upsert(PantryItem pantryItem);
+
+    /**
+     * Upsert every item in one transaction
+     */
+    @Upsert
+    void upsertAll(List<PantryItem> pantryItems);
+
+    /**
+     * Apply a batch of remote changes in one transaction. Changed items whose
+     * updatedAt matches the local row are not written, only marked synced. If
+     * complete is true, changed holds every remote item of the user and synced
+     * local rows missing from it are deleted too. Rows never seen remotely,
+     * e.g. a save whose Firestore write failed, are kept. Returns the number of
+     * rows written or deleted.
+     */
+    @Transaction
+    default int applyRemoteChanges(String userId, List<PantryItem> changed, List<String> removedIds,
+                                   boolean complete) {
+        List<PantryItem> stale = new ArrayList<>();
+        for (PantryItem item : changed) {
+            Long localUpdatedAt = getUpdatedAt(item.getId());
+            Long remoteUpdatedAt = item.getUpdatedAt() != null ? item.getUpdatedAt().getTime() : null;
+            if (localUpdatedAt == null || !localUpdatedAt.equals(remoteUpdatedAt)) {
+                item.setSynced(true);
+                stale.add(item);
+            } else {
+                markSynced(item.getId());
+            }
+        }
+        upsertAll(stale);
+
+        List<String> deletedIds = new ArrayList<>(removedIds);
+        if (complete) {
+            Set<String> remoteIds = new HashSet<>();
+            for (PantryItem item : changed) {
+                remoteIds.add(item.getId());
+            }
+            for (String localId : getSyncedItemIds(userId)) {
+                if (!remoteIds.contains(localId)) {
+                    deletedIds.add(localId);
+                }
+            }
+        }
+        for (String itemId : deletedIds) {
+            deleteItemById(userId, itemId);
+        }
+        return stale.size() + deletedIds.size();
+    }
+
+    /**
+     * updatedAt of an item in epoch millis, or null if there is no such row
+     */
+    @Query("SELECT updatedAt FROM pantry_items WHERE id = :itemId")
+    Long getUpdatedAt(String itemId);
+
+    @Query("SELECT id FROM pantry_items WHERE userId = :userId AND synced = 1")
+    List<String> getSyncedItemIds(String userId);
+
+    /**
+     * Record that an item matches its Firestore document
+     */
+    @Query("UPDATE pantry_items SET synced = 1 WHERE id = :itemId AND synced = 0")
+    void markSynced(String itemId);
+
     @Query("SELECT * FROM pantry_items WHERE userId = :userId ORDER BY ingredientName ASC")
     LiveData<List<PantryItem>> getAllItemsByUser(String userId);
 
@@ -31,6 +105,17 @@ public interface PantryItemDao {
     @Query("SELECT * FROM pantry_items WHERE userId = :userId AND ingredientName LIKE '%' || :query || '%'")
     LiveData<List<PantryItem>> searchItems(String userId, String query);
 
+    /**
+     * Full-text search; match is an FtsQuery expression. Names starting with
+     * namePrefix come first, then items with more term hits.
+     */
+    @Query("SELECT pantry_items.* FROM pantry_items JOIN pantry_items_fts ON pantry_items.rowid = pantry_items_fts.rowid "
+            + "WHERE pantry_items.userId = :userId AND pantry_items_fts MATCH :match "
+            + "ORDER BY pantry_items.ingredientName LIKE :namePrefix || '%' DESC, "
+            + "length(offsets(pantry_items_fts)) DESC, pantry_items.ingredientName ASC "
+            + "LIMIT :limit")
+    LiveData<List<PantryItem>> searchItemsFts(String userId, String match, String namePrefix, int limit);
+
     @Query("SELECT * FROM pantry_items WHERE userId = :userId AND expirationDate <= :expiryThreshold")
     LiveData<List<PantryItem>> getExpiringItems(String userId, long expiryThreshold);
 
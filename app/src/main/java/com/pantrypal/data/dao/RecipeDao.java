@@ -5,41 +5,232 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
+import com.pantrypal.data.model.DietaryTags;
 import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.RecipeIngredient;
+import com.pantrypal.data.model.RecipeMatch;
+import com.pantrypal.data.model.RecipeSummary;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Dao
 public interface RecipeDao {
-    @Insert
-    void insert(Recipe recipe);
+    /**
+     * Insert a recipe together with its recipe_ingredients rows
+     */
+    @Transaction
+    default void insert(Recipe recipe) {
+        List<RecipeIngredient> ingredients = ingredientRowsOf(recipe);
+        insertRecipe(recipe);
+        insertIngredients(ingredients);
+        resolveIngredientIds(recipe.getId());
+    }
 
-    @Update
-    void update(Recipe recipe);
+    /**
+     * Update a recipe and rebuild its recipe_ingredients rows
+     */
+    @Transaction
+    default void update(Recipe recipe) {
+        List<RecipeIngredient> ingredients = ingredientRowsOf(recipe);
+        updateRecipe(recipe);
+        deleteIngredients(recipe.getId());
+        insertIngredients(ingredients);
+        resolveIngredientIds(recipe.getId());
+    }
+
+    /**
+     * Insert or update every recipe and rebuild their recipe_ingredients rows,
+     * all in one transaction
+     */
+    @Transaction
+    default void upsertAll(List<Recipe> recipes) {
+        List<RecipeIngredient> ingredients = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            ingredients.addAll(ingredientRowsOf(recipe));
+        }
+        upsertRecipes(recipes);
+        for (Recipe recipe : recipes) {
+            deleteIngredients(recipe.getId());
+        }
+        insertIngredients(ingredients);
+        resolveAllIngredientIds();
+    }
+
+    /**
+     * Parse a recipe's ingredient rows and fill in its ingredientNames to match
+     */
+    private static List<RecipeIngredient> ingredientRowsOf(Recipe recipe) {
+        List<RecipeIngredient> ingredients = RecipeIngredient.listFrom(recipe.getId(), recipe.getIngredients());
+        recipe.setIngredientNames(RecipeIngredient.namesOf(ingredients));
+        return ingredients;
+    }
 
+    // recipe_ingredients rows are removed by ON DELETE CASCADE
     @Delete
     void delete(Recipe recipe);
 
+    @Insert
+    void insertRecipe(Recipe recipe);
+
+    @Update
+    void updateRecipe(Recipe recipe);
+
+    // Upsert rather than REPLACE: a REPLACE deletes the row first, which would
+    // cascade to its recipe_ingredients
+    @Upsert
+    void upsertRecipes(List<Recipe> recipes);
+
+    @Insert
+    void insertIngredients(List<RecipeIngredient> ingredients);
+
+    @Query("DELETE FROM recipe_ingredients WHERE recipeId = :recipeId")
+    void deleteIngredients(int recipeId);
+
+    @Query("UPDATE recipe_ingredients SET ingredientId = "
+            + "(SELECT id FROM ingredients WHERE lower(ingredients.name) = recipe_ingredients.name LIMIT 1) "
+            + "WHERE recipeId = :recipeId")
+    void resolveIngredientIds(int recipeId);
+
+    @Query("UPDATE recipe_ingredients SET ingredientId = "
+            + "(SELECT id FROM ingredients WHERE lower(ingredients.name) = recipe_ingredients.name LIMIT 1) "
+            + "WHERE ingredientId IS NULL")
+    void resolveAllIngredientIds();
+
     @Query("SELECT * FROM recipes WHERE id = :recipeId")
     LiveData<Recipe> getRecipeById(int recipeId);
 
     @Query("SELECT * FROM recipes WHERE isFavorite = 1 ORDER BY name ASC")
     LiveData<List<Recipe>> getFavoriteRecipes();
 
+    /**
+     * First page of favorites, sorted by (name, id)
+     */
+    @Query("SELECT " + RecipeSummary.COLUMNS + " FROM recipes WHERE isFavorite = 1 "
+            + "ORDER BY name ASC, id ASC LIMIT :limit")
+    List<RecipeSummary> getFavoriteRecipesPage(int limit);
+
+    /**
+     * Page of favorites sorted after (afterName, afterId). Recipes without a
+     * name sort first and are paged as their own segment by id, as a
+     * comparison with NULL matches nothing.
+     */
+    @Transaction
+    default List<RecipeSummary> getFavoriteRecipesPageAfter(String afterName, int afterId, int limit) {
+        if (afterName != null) {
+            return getNamedFavoriteRecipesPageAfter(afterName, afterId, limit);
+        }
+        List<RecipeSummary> page = new ArrayList<>(getUnnamedFavoriteRecipesPageAfter(afterId, limit));
+        if (page.size() < limit) {
+            page.addAll(getNamedFavoriteRecipesPage(limit - page.size()));
+        }
+        return page;
+    }
+
+    @Query("SELECT " + RecipeSummary.COLUMNS + " FROM recipes WHERE isFavorite = 1 AND name >= :afterName "
+            + "AND (name > :afterName OR id > :afterId) "
+            + "ORDER BY name ASC, id ASC LIMIT :limit")
+    List<RecipeSummary> getNamedFavoriteRecipesPageAfter(String afterName, int afterId, int limit);
+
+    @Query("SELECT " + RecipeSummary.COLUMNS + " FROM recipes WHERE isFavorite = 1 AND name IS NULL "
+            + "AND id > :afterId ORDER BY id ASC LIMIT :limit")
+    List<RecipeSummary> getUnnamedFavoriteRecipesPageAfter(int afterId, int limit);
+
+    @Query("SELECT " + RecipeSummary.COLUMNS + " FROM recipes WHERE isFavorite = 1 AND name IS NOT NULL "
+            + "ORDER BY name ASC, id ASC LIMIT :limit")
+    List<RecipeSummary> getNamedFavoriteRecipesPage(int limit);
+
+    /**
+     * Browse filters, each off when its argument is null or 0: category
+     * ignoring case; a diet tag, which vegetarian and vegan recipes also meet
+     * by having no meat or animal content tags; and a keyword the category
+     * must contain, for diets without a tag. Recipes without a category never
+     * pass a diet filter.
+     */
+    String BROWSE_FILTER = "(:category IS NULL OR category = :category COLLATE NOCASE) "
+            + "AND (:dietTag = 0 OR (category IS NOT NULL AND ((dietaryTags & :dietTag) != 0 "
+            + "OR (:dietTag = " + DietaryTags.VEGETARIAN + " AND (dietaryTags & "
+            + (DietaryTags.MEAT | DietaryTags.FISH) + ") = 0) "
+            + "OR (:dietTag = " + DietaryTags.VEGAN + " AND (dietaryTags & "
+            + (DietaryTags.MEAT | DietaryTags.DAIRY | DietaryTags.EGG | DietaryTags.FISH) + ") = 0)))) "
+            + "AND (:dietKeyword IS NULL OR instr(lower(category), :dietKeyword) > 0)";
+
+    /**
+     * First page of the catalog passing the browse filters, sorted by
+     * (matchPercentage, id) descending
+     */
+    @Query("SELECT " + RecipeSummary.COLUMNS + " FROM recipes WHERE " + BROWSE_FILTER + " "
+            + "ORDER BY matchPercentage DESC, id DESC LIMIT :limit")
+    List<RecipeSummary> getTopRecipesPage(String category, int dietTag, String dietKeyword, int limit);
+
+    /**
+     * Page of the catalog passing the browse filters sorted after
+     * (afterMatch, afterId), descending
+     */
+    @Query("SELECT " + RecipeSummary.COLUMNS + " FROM recipes WHERE matchPercentage <= :afterMatch "
+            + "AND (matchPercentage < :afterMatch OR id < :afterId) AND " + BROWSE_FILTER + " "
+            + "ORDER BY matchPercentage DESC, id DESC LIMIT :limit")
+    List<RecipeSummary> getTopRecipesPageAfter(String category, int dietTag, String dietKeyword,
+                                               double afterMatch, int afterId, int limit);
+
     @Query("SELECT * FROM recipes WHERE category = :category ORDER BY matchPercentage DESC LIMIT :limit")
     LiveData<List<Recipe>> getRecipesByCategory(String category, int limit);
 
     @Query("SELECT * FROM recipes ORDER BY matchPercentage DESC LIMIT :limit")
     LiveData<List<Recipe>> getTopRecipes(int limit);
 
+    /**
+     * getTopRecipes without the ingredients, instructions and nutrition JSON
+     */
+    @Query("SELECT " + RecipeSummary.COLUMNS + " FROM recipes ORDER BY matchPercentage DESC LIMIT :limit")
+    LiveData<List<RecipeSummary>> getTopRecipeSummaries(int limit);
+
     @Query("SELECT * FROM recipes WHERE name LIKE '%' || :query || '%'")
     LiveData<List<Recipe>> searchRecipes(String query);
 
+    /**
+     * Full-text search; match is an FtsQuery expression. Names starting with
+     * namePrefix come first, then recipes with more term hits.
+     */
+    @Query("SELECT recipes.* FROM recipes JOIN recipes_fts ON recipes.id = recipes_fts.rowid "
+            + "WHERE recipes_fts MATCH :match "
+            + "ORDER BY recipes.name LIKE :namePrefix || '%' DESC, length(offsets(recipes_fts)) DESC, recipes.name ASC "
+            + "LIMIT :limit")
+    LiveData<List<Recipe>> searchRecipesFts(String match, String namePrefix, int limit);
+
     @Query("SELECT * FROM recipes WHERE category = :category")
     LiveData<List<Recipe>> getRecipesInCategory(String category);
 
+    /**
+     * Rank the recipes using any ingredient the user's pantry matches by the
+     * share of their ingredients it matches. Matching follows PantryMatcher:
+     * a recipe ingredient matches a pantry item whose lowercased name it
+     * contains or is contained in, so counts agree with the Java scorer (SQLite's
+     * lower() folds ASCII letters only). Only ingredients written as
+     * {"name": ...} objects are matched, and recipes with an ingredient
+     * written as a plain string are left out, as the scorer gives them no
+     * pantry match. Ties keep the matchPercentage order.
+     */
+    @Query("WITH matched(name) AS ("
+            + "SELECT scorable.name FROM "
+            + "(SELECT DISTINCT name FROM recipe_ingredients WHERE rawText LIKE '{%') AS scorable "
+            + "WHERE EXISTS (SELECT 1 FROM pantry_items WHERE pantry_items.userId = :userId "
+            + "AND (instr(scorable.name, lower(pantry_items.ingredientName)) > 0 "
+            + "OR instr(lower(pantry_items.ingredientName), scorable.name) > 0))) "
+            + "SELECT recipes.*, COUNT(*) AS totalIngredients, "
+            + "SUM(recipe_ingredients.name IN (SELECT name FROM matched)) AS matchedIngredients "
+            + "FROM recipes JOIN recipe_ingredients ON recipe_ingredients.recipeId = recipes.id "
+            + "WHERE recipes.id IN (SELECT recipeId FROM recipe_ingredients WHERE name IN (SELECT name FROM matched)) "
+            + "GROUP BY recipes.id "
+            + "HAVING SUM(recipe_ingredients.rawText NOT LIKE '{%') = 0 "
+            + "ORDER BY CAST(matchedIngredients AS REAL) / totalIngredients DESC, recipes.matchPercentage DESC "
+            + "LIMIT :limit")
+    LiveData<List<RecipeMatch>> getBestPantryMatches(String userId, int limit);
+
     @Query("UPDATE recipes SET isFavorite = 1 WHERE id = :recipeId")
     void addToFavorites(int recipeId);
 
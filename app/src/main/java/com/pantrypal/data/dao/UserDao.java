@@ -6,9 +6,12 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
 import com.pantrypal.data.model.User;
 
+import java.util.List;
+
 @Dao
 public interface UserDao {
     @Insert
@@ -20,11 +23,23 @@ public interface UserDao {
     @Delete
     void delete(User user);
 
+    /**
+     * Insert, or update the row with the same id
+     */
+    @Upsert
+    void upsert(User user);
+
+    /**
+     * Upsert every user in one transaction
+     */
+    @Upsert
+    void upsertAll(List<User> users);
+
     @Query("SELECT * FROM users WHERE id = :userId")
     LiveData<User> getUserById(String userId);
 
     @Query("SELECT * FROM users WHERE email = :email")
-    User getUserByEmail(String email);
+    LiveData<User> getUserByEmail(String email);
 
     @Query("SELECT * FROM users WHERE id = :userId")
     User getUserByIdSync(String userId);
@@ -0,0 +1,55 @@
+package com.pantrypal.data.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds FTS MATCH expressions from search box input
+ */
+public final class FtsQuery {
+
+    private FtsQuery() {
+    }
+
+    /**
+     * Lowercased runs of letters and digits, the way the FTS "simple"
+     * tokenizer splits text. Everything else, including FTS operators and
+     * quotes, only separates terms.
+     */
+    static List<String> terms(String input) {
+        List<String> terms = new ArrayList<>();
+        if (input == null) {
+            return terms;
+        }
+        for (String term : input.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * MATCH expression requiring every term as a prefix, e.g. "chick cur" ->
+     * "chick* cur*". Empty if the input has no terms.
+     */
+    public static String prefixMatch(String input) {
+        StringBuilder match = new StringBuilder();
+        for (String term : terms(input)) {
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append(term).append('*');
+        }
+        return match.toString();
+    }
+
+    /**
+     * First term of the input, used to rank names starting with it first
+     */
+    public static String firstTerm(String input) {
+        List<String> terms = terms(input);
+        return terms.isEmpty() ? "" : terms.get(0);
+    }
+}
@@ -1,12 +1,14 @@
 package com.pantrypal.data.database;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.util.Log;
 
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.pantrypal.data.dao.IngredientDao;
@@ -16,14 +18,21 @@ import com.pantrypal.data.dao.UserDao;
 import com.pantrypal.data.mock.MockPantryData;
 import com.pantrypal.data.mock.MockRecipeData;
 import com.pantrypal.data.mock.MockUserData;
+import com.pantrypal.data.model.DietaryTags;
 import com.pantrypal.data.model.Ingredient;
+import com.pantrypal.data.model.IngredientFts;
 import com.pantrypal.data.model.PantryItem;
+import com.pantrypal.data.model.PantryItemFts;
 import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.RecipeFts;
+import com.pantrypal.data.model.RecipeIngredient;
 import com.pantrypal.data.model.User;
 
 import java.util.concurrent.Executors;
 
-@Database(entities = {User.class, PantryItem.class, Recipe.class, Ingredient.class}, version = 1)
+@Database(entities = {User.class, PantryItem.class, Recipe.class, Ingredient.class, RecipeIngredient.class,
+        RecipeFts.class, PantryItemFts.class, IngredientFts.class},
+        version = 8)
 @TypeConverters({Converters.class})
 public abstract class PantrypalDatabase extends RoomDatabase {
     private static final String TAG = "PantrypalDB";
@@ -35,12 +44,169 @@ public abstract class PantrypalDatabase extends RoomDatabase {
 
     private static PantrypalDatabase INSTANCE;
 
+    /**
+     * Adds the indexed dietaryTags bitmask to recipes and derives it for existing rows
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE recipes ADD COLUMN dietaryTags INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE recipes SET dietaryTags = " + DietaryTags.sqlExpression("category"));
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_recipes_dietaryTags ON recipes (dietaryTags)");
+        }
+    };
+
+    /**
+     * Adds recipe_ingredients and fills it from each recipe's ingredients JSON
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `recipe_ingredients` ("
+                    + "`recipeId` INTEGER NOT NULL, `position` INTEGER NOT NULL, `ingredientId` INTEGER, "
+                    + "`name` TEXT, `quantity` TEXT, `unit` TEXT, `rawText` TEXT, "
+                    + "PRIMARY KEY(`recipeId`, `position`), "
+                    + "FOREIGN KEY(`recipeId`) REFERENCES `recipes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_ingredients_ingredientId` "
+                    + "ON `recipe_ingredients` (`ingredientId`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_ingredients_name` "
+                    + "ON `recipe_ingredients` (`name`)");
+
+            try (Cursor cursor = database.query("SELECT id, ingredients FROM recipes")) {
+                while (cursor.moveToNext()) {
+                    int recipeId = cursor.getInt(0);
+                    String ingredients = cursor.isNull(1) ? null : cursor.getString(1);
+                    for (RecipeIngredient row : RecipeIngredient.listFrom(recipeId, ingredients)) {
+                        database.execSQL("INSERT INTO recipe_ingredients "
+                                + "(recipeId, position, name, quantity, unit, rawText) VALUES (?, ?, ?, ?, ?, ?)",
+                                new Object[] {row.getRecipeId(), row.getPosition(), row.getName(),
+                                        row.getQuantity(), row.getUnit(), row.getRawText()});
+                    }
+                }
+            }
+            database.execSQL("UPDATE recipe_ingredients SET ingredientId = "
+                    + "(SELECT id FROM ingredients WHERE lower(ingredients.name) = recipe_ingredients.name LIMIT 1)");
+        }
+    };
+
+    /**
+     * Adds full-text indexes over recipes, pantry_items and ingredients
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            createFtsTable(database, "recipes_fts", "recipes", "name", "description", "ingredients");
+            createFtsTable(database, "pantry_items_fts", "pantry_items", "ingredientName", "category", "notes");
+            createFtsTable(database, "ingredients_fts", "ingredients", "name", "category");
+        }
+    };
+
+    /**
+     * Adds indexes for the pantry and recipe list queries
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_pantry_items_userId_ingredientName` "
+                    + "ON `pantry_items` (`userId`, `ingredientName`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_pantry_items_userId_category_ingredientName` "
+                    + "ON `pantry_items` (`userId`, `category`, `ingredientName`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_pantry_items_userId_expirationDate` "
+                    + "ON `pantry_items` (`userId`, `expirationDate`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_recipes_matchPercentage` "
+                    + "ON `recipes` (`matchPercentage`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_recipes_category_matchPercentage` "
+                    + "ON `recipes` (`category`, `matchPercentage`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_recipes_isFavorite_name` "
+                    + "ON `recipes` (`isFavorite`, `name`)");
+        }
+    };
+
+    /**
+     * Extends the pantry name index with id for keyset paging on (ingredientName, id)
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("DROP INDEX IF EXISTS `index_pantry_items_userId_ingredientName`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_pantry_items_userId_ingredientName_id` "
+                    + "ON `pantry_items` (`userId`, `ingredientName`, `id`)");
+        }
+    };
+
+    /**
+     * Adds recipes.ingredientNames and re-creates recipes_fts over it instead
+     * of the raw ingredients JSON
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE recipes ADD COLUMN ingredientNames TEXT");
+            try (Cursor cursor = database.query("SELECT id, ingredients FROM recipes")) {
+                while (cursor.moveToNext()) {
+                    String ingredients = cursor.isNull(1) ? null : cursor.getString(1);
+                    database.execSQL("UPDATE recipes SET ingredientNames = ? WHERE id = ?",
+                            new Object[] {RecipeIngredient.namesOf(RecipeIngredient.listFrom(0, ingredients)),
+                                    cursor.getInt(0)});
+                }
+            }
+
+            for (String trigger : new String[] {"BEFORE_UPDATE", "BEFORE_DELETE", "AFTER_UPDATE", "AFTER_INSERT"}) {
+                database.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_recipes_fts_" + trigger);
+            }
+            database.execSQL("DROP TABLE IF EXISTS recipes_fts");
+            createFtsTable(database, "recipes_fts", "recipes", "name", "description", "ingredientNames");
+        }
+    };
+
+    /**
+     * Adds pantry_items.synced. Existing rows start unsynced, so a complete
+     * snapshot keeps them until they are seen remotely.
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE pantry_items ADD COLUMN synced INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * Create an external-content FTS4 table with the sync triggers Room
+     * generates for @Fts4(contentEntity), then index the existing rows
+     */
+    private static void createFtsTable(SupportSQLiteDatabase database, String ftsTable,
+                                       String contentTable, String... columns) {
+        StringBuilder columnDefinitions = new StringBuilder();
+        StringBuilder columnNames = new StringBuilder();
+        StringBuilder newValues = new StringBuilder();
+        for (String column : columns) {
+            columnDefinitions.append('`').append(column).append("` TEXT, ");
+            columnNames.append(", `").append(column).append('`');
+            newValues.append(", NEW.`").append(column).append('`');
+        }
+        database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + ftsTable + "` USING FTS4("
+                + columnDefinitions + "content=`" + contentTable + "`)");
+
+        String triggerPrefix = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + ftsTable;
+        String deleteOld = " BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END";
+        String insertNew = " BEGIN INSERT INTO `" + ftsTable + "`(`docid`" + columnNames
+                + ") VALUES (NEW.`rowid`" + newValues + "); END";
+        database.execSQL(triggerPrefix + "_BEFORE_UPDATE BEFORE UPDATE ON `" + contentTable + "`" + deleteOld);
+        database.execSQL(triggerPrefix + "_BEFORE_DELETE BEFORE DELETE ON `" + contentTable + "`" + deleteOld);
+        database.execSQL(triggerPrefix + "_AFTER_UPDATE AFTER UPDATE ON `" + contentTable + "`" + insertNew);
+        database.execSQL(triggerPrefix + "_AFTER_INSERT AFTER INSERT ON `" + contentTable + "`" + insertNew);
+
+        database.execSQL("INSERT INTO `" + ftsTable + "`(`" + ftsTable + "`) VALUES('rebuild')");
+    }
+
     public static PantrypalDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (PantrypalDatabase.class) {
                 if (INSTANCE == null) {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                             PantrypalDatabase.class, "pantrypal_database")
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
+                                    MIGRATION_6_7, MIGRATION_7_8)
                             .fallbackToDestructiveMigration()
                             .build();
                 }
@@ -58,16 +224,12 @@ public abstract class PantrypalDatabase extends RoomDatabase {
 
             // Insert mock recipes
             java.util.List<Recipe> recipes = MockRecipeData.getAllRecipes();
-            for (Recipe recipe : recipes) {
-                database.recipeDao().insert(recipe);
-            }
+            database.recipeDao().upsertAll(recipes);
             Log.d(TAG, "✅ Inserted " + recipes.size() + " mock recipes");
 
             // Insert mock pantry items
             java.util.List<PantryItem> items = MockPantryData.getAllPantryItems();
-            for (PantryItem item : items) {
-                database.pantryItemDao().insert(item);
-            }
+            database.pantryItemDao().upsertAll(items);
             Log.d(TAG, "✅ Inserted " + items.size() + " mock pantry items");
             Log.d(TAG, "✅ Mock data population complete!");
         } catch (Exception e) {
@@ -0,0 +1,146 @@
+package com.pantrypal.data.firebase;
+
+import androidx.lifecycle.LiveData;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.pantrypal.util.AppExecutors;
+
+/**
+ * LiveData over a Firestore query or document that only listens while it has
+ * active observers. Listeners are shared through SnapshotListenerRegistry.
+ *
+ * A backgrounded screen has no active observers, so its listener stops and
+ * costs no reads. On return the last value is shown at once, and the new
+ * listener's first snapshot comes from the local cache. A snapshot that was
+ * already parsed, such as the one a shared listener replays, is not parsed
+ * again.
+ *
+ * Snapshots arrive on the registry's background executor. The parser runs
+ * there too, so document deserialization stays off the main thread, and the
+ * result is handed over with postValue, which keeps only the latest.
+ *
+ * A parser that reads getDocumentChanges() needs every value in order and a
+ * starting point; see forQueryChanges.
+ */
+public class FirestoreLiveData<S, T> extends LiveData<T> {
+
+    /**
+     * Turns a snapshot into the value to post; called off the main thread
+     */
+    public interface Parser<S, T> {
+        T parse(S snapshot);
+    }
+
+    private interface Subscriber<S> {
+        SnapshotListenerRegistry.Subscription subscribe(EventListener<S> listener);
+    }
+
+    private final Subscriber<S> subscriber;
+    private final Parser<S, T> parser;
+    private final Parser<S, T> firstParser;
+    private final boolean keepEveryValue;
+    private final T errorValue;
+    private SnapshotListenerRegistry.Subscription subscription;
+    // Only touched on the snapshot executor
+    private S lastSnapshot;
+
+    private FirestoreLiveData(Subscriber<S> subscriber, Parser<S, T> parser, Parser<S, T> firstParser,
+                              boolean keepEveryValue, T errorValue) {
+        this.subscriber = subscriber;
+        this.parser = parser;
+        this.firstParser = firstParser;
+        this.keepEveryValue = keepEveryValue;
+        this.errorValue = errorValue;
+    }
+
+    private FirestoreLiveData(Subscriber<S> subscriber, Parser<S, T> parser, T errorValue) {
+        this(subscriber, parser, parser, false, errorValue);
+    }
+
+    /**
+     * @param errorValue set when the listener fails
+     */
+    public static <T> FirestoreLiveData<QuerySnapshot, T> forQuery(Query query, Parser<QuerySnapshot, T> parser,
+                                                                  T errorValue) {
+        return new FirestoreLiveData<>(
+                listener -> SnapshotListenerRegistry.getInstance().subscribe(query, listener), parser, errorValue);
+    }
+
+    /**
+     * For a parser of document changes. The first snapshot of every
+     * subscription goes to fullParser, which must read every document: it
+     * may be a shared listener's replay, whose changes are relative to a
+     * snapshot this LiveData never saw. Every value is then set in order
+     * rather than only the latest.
+     *
+     * @param errorValue set when the listener fails
+     */
+    public static <T> FirestoreLiveData<QuerySnapshot, T> forQueryChanges(Query query,
+                                                                         Parser<QuerySnapshot, T> changesParser,
+                                                                         Parser<QuerySnapshot, T> fullParser,
+                                                                         T errorValue) {
+        return new FirestoreLiveData<>(
+                listener -> SnapshotListenerRegistry.getInstance().subscribe(query, listener),
+                changesParser, fullParser, true, errorValue);
+    }
+
+    /**
+     * @param errorValue set when the listener fails
+     */
+    public static <T> FirestoreLiveData<DocumentSnapshot, T> forDocument(DocumentReference document,
+                                                                        Parser<DocumentSnapshot, T> parser,
+                                                                        T errorValue) {
+        return new FirestoreLiveData<>(
+                listener -> SnapshotListenerRegistry.getInstance().subscribe(document, listener), parser, errorValue);
+    }
+
+    @Override
+    protected void onActive() {
+        subscription = subscriber.subscribe(new Delivery());
+    }
+
+    @Override
+    protected void onInactive() {
+        if (subscription != null) {
+            subscription.release();
+            subscription = null;
+        }
+    }
+
+    private void deliver(T value) {
+        if (keepEveryValue) {
+            AppExecutors.getInstance().mainThread().execute(() -> setValue(value));
+        } else {
+            postValue(value);
+        }
+    }
+
+    /**
+     * The events of one subscription
+     */
+    private final class Delivery implements EventListener<S> {
+        // Only touched on the snapshot executor
+        private boolean first = true;
+
+        @Override
+        public void onEvent(S snapshot, FirebaseFirestoreException error) {
+            if (error != null) {
+                lastSnapshot = null;
+                deliver(errorValue);
+                return;
+            }
+            boolean firstSnapshot = first;
+            first = false;
+            // A snapshot this LiveData already parsed, such as a replay, changes nothing
+            if (snapshot != null && snapshot != lastSnapshot) {
+                lastSnapshot = snapshot;
+                deliver((firstSnapshot ? firstParser : parser).parse(snapshot));
+            }
+        }
+    }
+}
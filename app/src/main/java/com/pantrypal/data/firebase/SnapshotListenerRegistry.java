@@ -0,0 +1,186 @@
+package com.pantrypal.data.firebase;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.pantrypal.util.AppExecutors;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Shares one Firestore snapshot listener between everyone watching the same
+ * query or document
+ *
+ * Queries and document references are the keys; both compare equal when they
+ * point at the same path with the same filters, order and limit. The listener
+ * is attached for the first subscriber and removed a grace period after the
+ * last one leaves, so a screen rotation or a quick back-and-forth does not
+ * pay for a new listener. A subscriber that joins a running listener gets
+ * its latest snapshot right away; that snapshot's document changes are
+ * relative to the listener's previous snapshot, not to anything the
+ * subscriber saw. A listener that fails is dropped, so the next subscriber
+ * attaches a new one.
+ *
+ * Snapshots are delivered on a serial background executor, never on the main
+ * thread, so subscribers can parse them there. Subscribe and release on the
+ * main thread.
+ */
+public class SnapshotListenerRegistry {
+    private static final long DETACH_GRACE_MS = 5000;
+
+    private static volatile SnapshotListenerRegistry instance;
+
+    private final Map<Object, SharedListener<?>> listeners = new HashMap<>();
+    private final AppExecutors.MainThreadExecutor mainThread;
+    private final Executor snapshotExecutor;
+
+    /**
+     * @param mainThread runs the delayed detach
+     * @param snapshotExecutor delivers snapshots; must run tasks one at a time,
+     *                         in order, and accept every task, as replays are
+     *                         queued from the main thread
+     */
+    public SnapshotListenerRegistry(AppExecutors.MainThreadExecutor mainThread, Executor snapshotExecutor) {
+        this.mainThread = mainThread;
+        this.snapshotExecutor = snapshotExecutor;
+    }
+
+    public static SnapshotListenerRegistry getInstance() {
+        if (instance == null) {
+            synchronized (SnapshotListenerRegistry.class) {
+                if (instance == null) {
+                    AppExecutors executors = AppExecutors.getInstance();
+                    instance = new SnapshotListenerRegistry(executors.mainThread(), executors.snapshots());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * A subscriber's hold on a shared listener
+     */
+    public interface Subscription {
+        /**
+         * Stop receiving snapshots; safe to call more than once
+         */
+        void release();
+    }
+
+    private interface Source<S> {
+        ListenerRegistration attach(EventListener<S> listener);
+    }
+
+    public Subscription subscribe(Query query, EventListener<QuerySnapshot> listener) {
+        return subscribe(query, shared -> query.addSnapshotListener(snapshotExecutor, shared), listener);
+    }
+
+    public Subscription subscribe(DocumentReference document, EventListener<DocumentSnapshot> listener) {
+        return subscribe(document, shared -> document.addSnapshotListener(snapshotExecutor, shared), listener);
+    }
+
+    /**
+     * Number of Firestore listeners attached, including ones waiting out
+     * their grace period
+     */
+    public int getAttachedCount() {
+        return listeners.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> Subscription subscribe(Object key, Source<S> source, EventListener<S> listener) {
+        SharedListener<S> shared = (SharedListener<S>) listeners.get(key);
+        if (shared == null || shared.failed) {
+            shared = new SharedListener<>(key, source);
+            listeners.put(key, shared);
+        }
+        SharedListener<S> subscribed = shared;
+        subscribed.add(listener);
+        return () -> subscribed.remove(listener);
+    }
+
+    /**
+     * One Firestore listener and the subscribers it fans out to
+     */
+    private final class SharedListener<S> implements EventListener<S> {
+        private final Object key;
+        private final Source<S> source;
+        private final List<EventListener<S>> subscribers = new CopyOnWriteArrayList<>();
+        private final Runnable detach = this::detachIfUnused;
+        private ListenerRegistration registration;
+        // Written on the snapshot executor, cleared on the main thread
+        private volatile S lastSnapshot;
+        // Set on the snapshot executor once Firestore reports an error
+        private volatile boolean failed;
+
+        SharedListener(Object key, Source<S> source) {
+            this.key = key;
+            this.source = source;
+        }
+
+        void add(EventListener<S> subscriber) {
+            mainThread.cancel(detach);
+            subscribers.add(subscriber);
+            if (registration == null) {
+                registration = source.attach(this);
+            } else {
+                // Replay in line with the listener's own events
+                snapshotExecutor.execute(() -> replay(subscriber));
+            }
+        }
+
+        private void replay(EventListener<S> subscriber) {
+            S snapshot = lastSnapshot;
+            if (snapshot != null && subscribers.contains(subscriber)) {
+                subscriber.onEvent(snapshot, null);
+            }
+        }
+
+        void remove(EventListener<S> subscriber) {
+            if (subscribers.remove(subscriber) && subscribers.isEmpty()) {
+                mainThread.executeDelayed(detach, DETACH_GRACE_MS);
+            }
+        }
+
+        private void detachIfUnused() {
+            if (subscribers.isEmpty()) {
+                detach();
+            }
+        }
+
+        private void detach() {
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+            lastSnapshot = null;
+            // A failed listener may already have been replaced under its key
+            if (listeners.get(key) == this) {
+                listeners.remove(key);
+            }
+        }
+
+        @Override
+        public void onEvent(S snapshot, FirebaseFirestoreException error) {
+            if (error == null) {
+                lastSnapshot = snapshot;
+            } else {
+                // Firestore stops a listener after an error; stop sharing it
+                failed = true;
+                lastSnapshot = null;
+                mainThread.execute(this::detach);
+            }
+            for (EventListener<S> subscriber : subscribers) {
+                subscriber.onEvent(snapshot, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.pantrypal.data.model;
+
+import java.util.Locale;
+
+/**
+ * Dietary and allergen tags of a recipe, packed into an int bitmask.
+ *
+ * Tags are derived once from the recipe category, with the same keyword rules
+ * the recommendation and filter code used to apply with String.contains:
+ * - Content tags: the category mentions an ingredient group (meat, dairy, ...)
+ * - Diet tags: the category names a diet (e.g. "Vegan Breakfast")
+ */
+public final class DietaryTags {
+
+    // Content tags
+    public static final int MEAT = 1;
+    public static final int FISH = 1 << 1;
+    public static final int CHICKEN = 1 << 2;
+    public static final int BEEF = 1 << 3;
+    public static final int PORK = 1 << 4;
+    public static final int DAIRY = 1 << 5;
+    public static final int EGG = 1 << 6;
+    public static final int BREAD = 1 << 7;
+    public static final int PASTA = 1 << 8;
+    public static final int WHEAT = 1 << 9;
+    public static final int RICE = 1 << 10;
+    public static final int POTATO = 1 << 11;
+
+    // Diet tags
+    public static final int VEGETARIAN = 1 << 16;
+    public static final int VEGAN = 1 << 17;
+    public static final int GLUTEN_FREE = 1 << 18;
+    public static final int KETO = 1 << 19;
+
+    /**
+     * Content tags that rule a recipe out of each diet
+     */
+    public static final int NOT_VEGETARIAN = MEAT | FISH | CHICKEN | BEEF | PORK;
+    public static final int NOT_VEGAN = MEAT | FISH | DAIRY | EGG | CHICKEN | BEEF;
+    public static final int NOT_GLUTEN_FREE = BREAD | PASTA | WHEAT;
+    public static final int NOT_KETO = RICE | PASTA | BREAD | POTATO;
+
+    private static final String[] KEYWORDS = {
+            "meat", "fish", "chicken", "beef", "pork", "dairy", "egg",
+            "bread", "pasta", "wheat", "rice", "potato",
+            "vegetarian", "vegan", "gluten-free", "keto"
+    };
+    private static final int[] KEYWORD_TAGS = {
+            MEAT, FISH, CHICKEN, BEEF, PORK, DAIRY, EGG,
+            BREAD, PASTA, WHEAT, RICE, POTATO,
+            VEGETARIAN, VEGAN, GLUTEN_FREE, KETO
+    };
+
+    private DietaryTags() {
+    }
+
+    /**
+     * Derive the tags of a recipe category
+     */
+    public static int fromCategory(String category) {
+        if (category == null) {
+            return 0;
+        }
+        String lowerCategory = category.toLowerCase();
+        int tags = 0;
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            if (lowerCategory.contains(KEYWORDS[i])) {
+                tags |= KEYWORD_TAGS[i];
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Diet tag for a lowercased dietary preference, or 0 if it is not a known diet
+     */
+    public static int forPreference(String dietPref) {
+        switch (dietPref) {
+            case "vegetarian": return VEGETARIAN;
+            case "vegan": return VEGAN;
+            case "gluten-free": return GLUTEN_FREE;
+            case "keto": return KETO;
+            default: return 0;
+        }
+    }
+
+    /**
+     * Content tags a recipe must not carry to suit a diet tag
+     */
+    public static int excludedBy(int dietTag) {
+        switch (dietTag) {
+            case VEGETARIAN: return NOT_VEGETARIAN;
+            case VEGAN: return NOT_VEGAN;
+            case GLUTEN_FREE: return NOT_GLUTEN_FREE;
+            case KETO: return NOT_KETO;
+            default: return 0;
+        }
+    }
+
+    /**
+     * SQL expression computing the tags of the category column, for migrations
+     */
+    public static String sqlExpression(String categoryColumn) {
+        StringBuilder sql = new StringBuilder("(0");
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            sql.append(String.format(Locale.US, " | (CASE WHEN instr(lower(%s), '%s') > 0 THEN %d ELSE 0 END)",
+                    categoryColumn, KEYWORDS[i], KEYWORD_TAGS[i]));
+        }
+        return sql.append(')').toString();
+    }
+}
@@ -0,0 +1,24 @@
+package com.pantrypal.data.model;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over ingredient names and categories, kept in sync with
+ * ingredients by Room
+ */
+@Fts4(contentEntity = Ingredient.class)
+@Entity(tableName = "ingredients_fts")
+public class IngredientFts {
+    private String name;
+    private String category;
+
+    public IngredientFts(String name, String category) {
+        this.name = name;
+        this.category = category;
+    }
+
+    public String getName() { return name; }
+
+    public String getCategory() { return category; }
+}
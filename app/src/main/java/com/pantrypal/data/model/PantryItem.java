@@ -1,18 +1,26 @@
 package com.pantrypal.data.model;
 
 import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.google.firebase.firestore.DocumentId;
+import com.google.firebase.firestore.Exclude;
 import com.google.firebase.firestore.ServerTimestamp;
 
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
-@Entity(tableName = "pantry_items")
+@Entity(tableName = "pantry_items",
+        indices = {
+                @Index({"userId", "ingredientName", "id"}),
+                @Index({"userId", "category", "ingredientName"}),
+                @Index({"userId", "expirationDate"})
+        })
 public class PantryItem {
     @PrimaryKey
     @NonNull
@@ -34,6 +42,11 @@ public class PantryItem {
     @ServerTimestamp
     private Date updatedAt;
 
+    // Local only: true once the row is known to match a Firestore document
+    @Exclude
+    @ColumnInfo(defaultValue = "0")
+    private boolean synced;
+
     // Default constructor required for Firestore
     public PantryItem() {
         this.id = "";
@@ -107,4 +120,9 @@ public class PantryItem {
 
     public Date getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+
+    @Exclude
+    public boolean isSynced() { return synced; }
+    @Exclude
+    public void setSynced(boolean synced) { this.synced = synced; }
 }
\ No newline at end of file
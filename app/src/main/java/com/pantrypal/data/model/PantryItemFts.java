@@ -0,0 +1,28 @@
+package com.pantrypal.data.model;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over pantry item names, categories and notes, kept in sync
+ * with pantry_items by Room
+ */
+@Fts4(contentEntity = PantryItem.class)
+@Entity(tableName = "pantry_items_fts")
+public class PantryItemFts {
+    private String ingredientName;
+    private String category;
+    private String notes;
+
+    public PantryItemFts(String ingredientName, String category, String notes) {
+        this.ingredientName = ingredientName;
+        this.category = category;
+        this.notes = notes;
+    }
+
+    public String getIngredientName() { return ingredientName; }
+
+    public String getCategory() { return category; }
+
+    public String getNotes() { return notes; }
+}
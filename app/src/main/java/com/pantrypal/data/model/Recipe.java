@@ -1,10 +1,24 @@
 package com.pantrypal.data.model;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "recipes")
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Entity(tableName = "recipes",
+        indices = {
+                @Index("dietaryTags"),
+                @Index("matchPercentage"),
+                @Index({"category", "matchPercentage"}),
+                @Index({"isFavorite", "name"})
+        })
 public class Recipe {
+    // Edits to the fields recommendation scoring reads, across every recipe
+    private static final AtomicLong scoringVersion = new AtomicLong();
+
     @PrimaryKey
     private int id;
     private String name;
@@ -20,6 +34,9 @@ public class Recipe {
     private int calories;
     private boolean isFavorite;
     private double matchPercentage;
+    @ColumnInfo(defaultValue = "0")
+    private int dietaryTags; // DietaryTags bitmask derived from category
+    private String ingredientNames; // ingredient names, set by RecipeDao on write, for full-text search
 
     public Recipe(int id, String name, String description, String imageUrl, String category, int cookingTime, String difficulty, String ingredients, String instructions, String nutrition, int servings, int calories, boolean isFavorite, double matchPercentage) {
         this.id = id;
@@ -27,6 +44,7 @@ public class Recipe {
         this.description = description;
         this.imageUrl = imageUrl;
         this.category = category;
+        this.dietaryTags = DietaryTags.fromCategory(category);
         this.cookingTime = cookingTime;
         this.difficulty = difficulty;
         this.ingredients = ingredients;
@@ -38,9 +56,21 @@ public class Recipe {
         this.matchPercentage = matchPercentage;
     }
 
+    /**
+     * Incremented whenever a setter changes the id, category, dietary tags,
+     * ingredients or calories of any recipe, so a structure built from a
+     * catalog can tell it is still current without comparing every recipe
+     */
+    public static long getScoringVersion() { return scoringVersion.get(); }
+
     // Getters and Setters
     public int getId() { return id; }
-    public void setId(int id) { this.id = id; }
+    public void setId(int id) {
+        if (this.id != id) {
+            this.id = id;
+            scoringVersion.incrementAndGet();
+        }
+    }
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -52,7 +82,13 @@ public class Recipe {
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
 
     public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public void setCategory(String category) {
+        if (!Objects.equals(this.category, category)) {
+            this.category = category;
+            this.dietaryTags = DietaryTags.fromCategory(category);
+            scoringVersion.incrementAndGet();
+        }
+    }
 
     public int getCookingTime() { return cookingTime; }
     public void setCookingTime(int cookingTime) { this.cookingTime = cookingTime; }
@@ -61,7 +97,12 @@ public class Recipe {
     public void setDifficulty(String difficulty) { this.difficulty = difficulty; }
 
     public String getIngredients() { return ingredients; }
-    public void setIngredients(String ingredients) { this.ingredients = ingredients; }
+    public void setIngredients(String ingredients) {
+        if (!Objects.equals(this.ingredients, ingredients)) {
+            this.ingredients = ingredients;
+            scoringVersion.incrementAndGet();
+        }
+    }
 
     public String getInstructions() { return instructions; }
     public void setInstructions(String instructions) { this.instructions = instructions; }
@@ -73,11 +114,28 @@ public class Recipe {
     public void setServings(int servings) { this.servings = servings; }
 
     public int getCalories() { return calories; }
-    public void setCalories(int calories) { this.calories = calories; }
+    public void setCalories(int calories) {
+        if (this.calories != calories) {
+            this.calories = calories;
+            scoringVersion.incrementAndGet();
+        }
+    }
 
     public boolean isFavorite() { return isFavorite; }
     public void setFavorite(boolean favorite) { isFavorite = favorite; }
 
     public double getMatchPercentage() { return matchPercentage; }
     public void setMatchPercentage(double matchPercentage) { this.matchPercentage = matchPercentage; }
+
+    public int getDietaryTags() { return dietaryTags; }
+    // Room sets this on every read; it only counts as an edit when the value changes
+    public void setDietaryTags(int dietaryTags) {
+        if (this.dietaryTags != dietaryTags) {
+            this.dietaryTags = dietaryTags;
+            scoringVersion.incrementAndGet();
+        }
+    }
+
+    public String getIngredientNames() { return ingredientNames; }
+    public void setIngredientNames(String ingredientNames) { this.ingredientNames = ingredientNames; }
 }
\ No newline at end of file
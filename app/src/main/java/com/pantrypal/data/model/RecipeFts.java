@@ -0,0 +1,30 @@
+package com.pantrypal.data.model;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over recipe names, descriptions and ingredient names. Room
+ * keeps it in sync with recipes through triggers; its rowid is the recipe id.
+ * Ingredients are indexed through the derived ingredientNames column, so the
+ * JSON keys ("name", "quantity", "unit") never match a search.
+ */
+@Fts4(contentEntity = Recipe.class)
+@Entity(tableName = "recipes_fts")
+public class RecipeFts {
+    private String name;
+    private String description;
+    private String ingredientNames;
+
+    public RecipeFts(String name, String description, String ingredientNames) {
+        this.name = name;
+        this.description = description;
+        this.ingredientNames = ingredientNames;
+    }
+
+    public String getName() { return name; }
+
+    public String getDescription() { return description; }
+
+    public String getIngredientNames() { return ingredientNames; }
+}
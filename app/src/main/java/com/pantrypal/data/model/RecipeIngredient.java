@@ -0,0 +1,115 @@
+package com.pantrypal.data.model;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One ingredient line of a recipe, normalized out of Recipe.ingredients so
+ * ingredient lookups and joins can run in SQLite.
+ */
+@Entity(tableName = "recipe_ingredients",
+        primaryKeys = {"recipeId", "position"},
+        foreignKeys = @ForeignKey(entity = Recipe.class, parentColumns = "id",
+                childColumns = "recipeId", onDelete = ForeignKey.CASCADE),
+        indices = {@Index("ingredientId"), @Index("name")})
+public class RecipeIngredient {
+    private int recipeId;
+    private int position; // index in the recipe's ingredients JSON array
+    private Integer ingredientId; // ingredients.id with the same name, if any
+    private String name; // lowercased
+    private String quantity;
+    private String unit;
+    private String rawText; // the JSON entry as written
+
+    public RecipeIngredient(int recipeId, int position, Integer ingredientId, String name,
+                            String quantity, String unit, String rawText) {
+        this.recipeId = recipeId;
+        this.position = position;
+        this.ingredientId = ingredientId;
+        this.name = name;
+        this.quantity = quantity;
+        this.unit = unit;
+        this.rawText = rawText;
+    }
+
+    /**
+     * Rows for a recipe's ingredients JSON. Objects give their name, quantity
+     * and unit; plain string entries are used as the name. Returns no rows if
+     * the JSON is not an array.
+     */
+    public static List<RecipeIngredient> listFrom(int recipeId, String ingredientsJson) {
+        List<RecipeIngredient> rows = new ArrayList<>();
+        if (ingredientsJson == null || ingredientsJson.isEmpty()) {
+            return rows;
+        }
+
+        JSONArray ingredients;
+        try {
+            ingredients = new JSONArray(ingredientsJson);
+        } catch (JSONException e) {
+            return rows;
+        }
+
+        for (int position = 0; position < ingredients.length(); position++) {
+            Object entry = ingredients.opt(position);
+            if (entry instanceof JSONObject) {
+                JSONObject ingredient = (JSONObject) entry;
+                rows.add(new RecipeIngredient(recipeId, position, null,
+                        ingredient.optString("name", "").toLowerCase(),
+                        ingredient.optString("quantity", null),
+                        ingredient.optString("unit", null),
+                        ingredient.toString()));
+            } else if (entry != null && entry != JSONObject.NULL) {
+                String text = entry.toString();
+                rows.add(new RecipeIngredient(recipeId, position, null, text.toLowerCase(),
+                        null, null, text));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The names of a recipe's ingredient rows, one per line, for the recipe's
+     * ingredientNames column. Unlike the JSON, it has no keys to match a search.
+     */
+    public static String namesOf(List<RecipeIngredient> rows) {
+        StringBuilder names = new StringBuilder();
+        for (RecipeIngredient row : rows) {
+            if (names.length() > 0) {
+                names.append('\n');
+            }
+            names.append(row.getName());
+        }
+        return names.toString();
+    }
+
+    // Getters and Setters
+    public int getRecipeId() { return recipeId; }
+    public void setRecipeId(int recipeId) { this.recipeId = recipeId; }
+
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+
+    public Integer getIngredientId() { return ingredientId; }
+    public void setIngredientId(Integer ingredientId) { this.ingredientId = ingredientId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getQuantity() { return quantity; }
+    public void setQuantity(String quantity) { this.quantity = quantity; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public String getRawText() { return rawText; }
+    public void setRawText(String rawText) { this.rawText = rawText; }
+}
@@ -0,0 +1,33 @@
+package com.pantrypal.data.model;
+
+import androidx.room.Embedded;
+
+/**
+ * A recipe with how many of its ingredients a user's pantry covers, as ranked
+ * by RecipeDao.getBestPantryMatches
+ */
+public class RecipeMatch {
+    @Embedded
+    private Recipe recipe;
+    private int matchedIngredients;
+    private int totalIngredients;
+
+    public RecipeMatch(Recipe recipe, int matchedIngredients, int totalIngredients) {
+        this.recipe = recipe;
+        this.matchedIngredients = matchedIngredients;
+        this.totalIngredients = totalIngredients;
+    }
+
+    public Recipe getRecipe() { return recipe; }
+
+    public int getMatchedIngredients() { return matchedIngredients; }
+
+    public int getTotalIngredients() { return totalIngredients; }
+
+    /**
+     * Share of ingredients in the pantry, 0-1
+     */
+    public double getCoverage() {
+        return totalIngredients == 0 ? 0.0 : (double) matchedIngredients / totalIngredients;
+    }
+}
@@ -0,0 +1,60 @@
+package com.pantrypal.data.model;
+
+/**
+ * The columns of a recipe that list and grid screens show. Queries that
+ * return it skip the ingredients, instructions and nutrition JSON; screens
+ * load the full Recipe by id when one is opened.
+ */
+public class RecipeSummary {
+    /**
+     * Select list for RecipeDao queries that return summaries
+     */
+    public static final String COLUMNS =
+            "id, name, imageUrl, category, cookingTime, calories, matchPercentage, dietaryTags";
+
+    private int id;
+    private String name;
+    private String imageUrl;
+    private String category;
+    private int cookingTime; // in minutes
+    private int calories;
+    private double matchPercentage;
+    private int dietaryTags; // DietaryTags bitmask
+
+    public RecipeSummary(int id, String name, String imageUrl, String category, int cookingTime,
+                         int calories, double matchPercentage, int dietaryTags) {
+        this.id = id;
+        this.name = name;
+        this.imageUrl = imageUrl;
+        this.category = category;
+        this.cookingTime = cookingTime;
+        this.calories = calories;
+        this.matchPercentage = matchPercentage;
+        this.dietaryTags = dietaryTags;
+    }
+
+    /**
+     * Summary of a recipe that is already loaded in full
+     */
+    public static RecipeSummary of(Recipe recipe) {
+        return new RecipeSummary(recipe.getId(), recipe.getName(), recipe.getImageUrl(),
+                recipe.getCategory(), recipe.getCookingTime(), recipe.getCalories(),
+                recipe.getMatchPercentage(), recipe.getDietaryTags());
+    }
+
+    public int getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getImageUrl() { return imageUrl; }
+
+    public String getCategory() { return category; }
+
+    public int getCookingTime() { return cookingTime; }
+
+    public int getCalories() { return calories; }
+
+    public double getMatchPercentage() { return matchPercentage; }
+
+    public int getDietaryTags() { return dietaryTags; }
+}
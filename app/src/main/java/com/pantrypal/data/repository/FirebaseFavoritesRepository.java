@@ -1,11 +1,12 @@
 package com.pantrypal.data.repository;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
 
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.pantrypal.data.firebase.FirestoreLiveData;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -44,26 +45,13 @@ public class FirebaseFavoritesRepository {
      * Get all favorite recipe IDs with real-time updates
      */
     public LiveData<List<String>> getFavoriteRecipeIds(String userId) {
-        MutableLiveData<List<String>> liveData = new MutableLiveData<>();
-
-        getFavoritesCollection(userId)
-                .addSnapshotListener((snapshots, error) -> {
-                    if (error != null) {
-                        liveData.setValue(new ArrayList<>());
-                        return;
-                    }
-
-                    if (snapshots != null) {
-                        List<String> recipeIds = new ArrayList<>();
-                        for (QueryDocumentSnapshot doc : snapshots) {
-                            String recipeId = doc.getId();
-                            recipeIds.add(recipeId);
-                        }
-                        liveData.setValue(recipeIds);
-                    }
-                });
-
-        return liveData;
+        return FirestoreLiveData.forQuery(getFavoritesCollection(userId), snapshots -> {
+            List<String> recipeIds = new ArrayList<>();
+            for (QueryDocumentSnapshot doc : snapshots) {
+                recipeIds.add(doc.getId());
+            }
+            return recipeIds;
+        }, new ArrayList<>());
     }
 
     /**
@@ -180,20 +168,8 @@ public class FirebaseFavoritesRepository {
      * Get favorite status with real-time updates
      */
     public LiveData<Boolean> isFavoriteLiveData(String userId, String recipeId) {
-        MutableLiveData<Boolean> liveData = new MutableLiveData<>();
-
-        getFavoritesCollection(userId)
-                .document(recipeId)
-                .addSnapshotListener((documentSnapshot, error) -> {
-                    if (error != null) {
-                        liveData.setValue(false);
-                        return;
-                    }
-
-                    liveData.setValue(documentSnapshot != null && documentSnapshot.exists());
-                });
-
-        return liveData;
+        return FirestoreLiveData.forDocument(getFavoritesCollection(userId).document(recipeId),
+                DocumentSnapshot::exists, false);
     }
 
     /**
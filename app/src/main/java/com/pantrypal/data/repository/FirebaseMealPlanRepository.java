@@ -1,12 +1,12 @@
 package com.pantrypal.data.repository;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
 
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
+import com.pantrypal.data.firebase.FirestoreLiveData;
 import com.pantrypal.data.model.MealPlan;
 
 import java.util.ArrayList;
@@ -28,60 +28,43 @@ public class FirebaseMealPlanRepository {
      * Get all meal plans for a user
      */
     public LiveData<List<MealPlan>> getUserMealPlans(String userId) {
-        MutableLiveData<List<MealPlan>> liveData = new MutableLiveData<>();
-
-        db.collection(COLLECTION_MEAL_PLANS)
+        Query query = db.collection(COLLECTION_MEAL_PLANS)
                 .whereEqualTo("userId", userId)
-                .orderBy("startDate", Query.Direction.DESCENDING)
-                .addSnapshotListener((snapshots, error) -> {
-                    if (error != null) {
-                        liveData.setValue(new ArrayList<>());
-                        return;
-                    }
-
-                    if (snapshots != null) {
-                        List<MealPlan> mealPlans = new ArrayList<>();
-                        for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                            MealPlan mealPlan = doc.toObject(MealPlan.class);
-                            if (mealPlan != null) {
-                                mealPlan.setId(doc.getId());
-                                mealPlans.add(mealPlan);
-                            }
-                        }
-                        liveData.setValue(mealPlans);
-                    }
-                });
-
-        return liveData;
+                .orderBy("startDate", Query.Direction.DESCENDING);
+
+        return FirestoreLiveData.forQuery(query, snapshots -> {
+            List<MealPlan> mealPlans = new ArrayList<>();
+            for (DocumentSnapshot doc : snapshots.getDocuments()) {
+                MealPlan mealPlan = toMealPlan(doc);
+                if (mealPlan != null) {
+                    mealPlans.add(mealPlan);
+                }
+            }
+            return mealPlans;
+        }, new ArrayList<>());
     }
 
     /**
      * Get current active meal plan
      */
     public LiveData<MealPlan> getCurrentMealPlan(String userId) {
-        MutableLiveData<MealPlan> liveData = new MutableLiveData<>();
         Date now = new Date();
-
-        db.collection(COLLECTION_MEAL_PLANS)
+        Query query = db.collection(COLLECTION_MEAL_PLANS)
                 .whereEqualTo("userId", userId)
                 .whereLessThanOrEqualTo("startDate", now)
                 .whereGreaterThanOrEqualTo("endDate", now)
-                .limit(1)
-                .addSnapshotListener((snapshots, error) -> {
-                    if (error != null || snapshots == null || snapshots.isEmpty()) {
-                        liveData.setValue(null);
-                        return;
-                    }
+                .limit(1);
 
-                    DocumentSnapshot doc = snapshots.getDocuments().get(0);
-                    MealPlan mealPlan = doc.toObject(MealPlan.class);
-                    if (mealPlan != null) {
-                        mealPlan.setId(doc.getId());
-                    }
-                    liveData.setValue(mealPlan);
-                });
+        return FirestoreLiveData.forQuery(query, snapshots ->
+                snapshots.isEmpty() ? null : toMealPlan(snapshots.getDocuments().get(0)), null);
+    }
 
-        return liveData;
+    private static MealPlan toMealPlan(DocumentSnapshot doc) {
+        MealPlan mealPlan = doc.toObject(MealPlan.class);
+        if (mealPlan != null) {
+            mealPlan.setId(doc.getId());
+        }
+        return mealPlan;
     }
 
     /**
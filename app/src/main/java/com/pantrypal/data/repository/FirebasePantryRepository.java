@@ -1,12 +1,15 @@
 package com.pantrypal.data.repository;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
 
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.pantrypal.data.firebase.FirestoreLiveData;
 import com.pantrypal.data.model.PantryItem;
 
 import java.util.ArrayList;
@@ -32,6 +35,37 @@ public class FirebasePantryRepository {
         void onFailure(String error);
     }
 
+    /**
+     * The pantry documents that changed in one snapshot
+     */
+    public static class PantryChanges {
+        private final List<PantryItem> changed;
+        private final List<String> removedIds;
+        private final boolean complete;
+
+        PantryChanges(List<PantryItem> changed, List<String> removedIds, boolean complete) {
+            this.changed = changed;
+            this.removedIds = removedIds;
+            this.complete = complete;
+        }
+
+        /**
+         * Items added or modified
+         */
+        public List<PantryItem> getChanged() { return changed; }
+
+        /**
+         * Ids of items removed
+         */
+        public List<String> getRemovedIds() { return removedIds; }
+
+        /**
+         * True if getChanged() holds every item of the user, so local items
+         * missing from it were deleted remotely
+         */
+        public boolean isComplete() { return complete; }
+    }
+
     /**
      * Get collection reference for user's pantry items
      */
@@ -52,62 +86,95 @@ public class FirebasePantryRepository {
      * Get pantry items by user with real-time updates
      */
     public LiveData<List<PantryItem>> getPantryItemsByUser(String userId) {
-        MutableLiveData<List<PantryItem>> liveData = new MutableLiveData<>();
+        return FirestoreLiveData.forQuery(
+                getPantryItemsCollection(userId).orderBy("createdAt", Query.Direction.DESCENDING),
+                FirebasePantryRepository::toPantryItems, new ArrayList<>());
+    }
 
-        getPantryItemsCollection(userId)
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .addSnapshotListener((snapshots, error) -> {
-                    if (error != null) {
-                        liveData.setValue(new ArrayList<>());
-                        return;
-                    }
+    /**
+     * A user's pantry items as the changes of each snapshot, so an edit to one
+     * item delivers one item. Each time it becomes observed it first delivers
+     * every item. Listens only while observed.
+     */
+    public LiveData<PantryChanges> getPantryChanges(String userId) {
+        return FirestoreLiveData.forQueryChanges(getPantryItemsCollection(userId),
+                FirebasePantryRepository::toPantryChanges, FirebasePantryRepository::toAllPantryItems, null);
+    }
 
-                    if (snapshots != null) {
-                        List<PantryItem> items = new ArrayList<>();
-                        for (QueryDocumentSnapshot doc : snapshots) {
-                            PantryItem item = doc.toObject(PantryItem.class);
-                            item.setId(doc.getId());
-                            items.add(item);
-                        }
-                        liveData.setValue(items);
-                    }
-                });
+    /**
+     * Every item of a snapshot, complete unless it came from the cache
+     */
+    private static PantryChanges toAllPantryItems(QuerySnapshot snapshots) {
+        return new PantryChanges(toPantryItems(snapshots), new ArrayList<>(),
+                !snapshots.getMetadata().isFromCache());
+    }
+
+    private static PantryChanges toPantryChanges(QuerySnapshot snapshots) {
+        List<PantryItem> changed = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        for (DocumentChange change : snapshots.getDocumentChanges()) {
+            QueryDocumentSnapshot doc = change.getDocument();
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                removedIds.add(doc.getId());
+            } else {
+                changed.add(toPantryItem(doc));
+            }
+        }
+        // The first snapshot from the server lists every item as added. A
+        // first snapshot from the cache may miss items the server has.
+        boolean complete = !snapshots.getMetadata().isFromCache()
+                && removedIds.isEmpty() && changed.size() == snapshots.size();
+        return new PantryChanges(changed, removedIds, complete);
+    }
 
-        return liveData;
+    private static List<PantryItem> toPantryItems(QuerySnapshot snapshots) {
+        List<PantryItem> items = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : snapshots) {
+            items.add(toPantryItem(doc));
+        }
+        return items;
+    }
+
+    private static PantryItem toPantryItem(QueryDocumentSnapshot doc) {
+        PantryItem item = doc.toObject(PantryItem.class);
+        item.setId(doc.getId());
+        return item;
     }
 
     /**
      * Get expiring items (within 3 days) with real-time updates
      */
     public LiveData<List<PantryItem>> getExpiringItems(String userId) {
-        MutableLiveData<List<PantryItem>> liveData = new MutableLiveData<>();
-
-        // Calculate date 3 days from now
         Calendar calendar = Calendar.getInstance();
         calendar.add(Calendar.DAY_OF_MONTH, 3);
         Date threeDaysFromNow = calendar.getTime();
 
-        getPantryItemsCollection(userId)
-                .whereLessThanOrEqualTo("expirationDate", threeDaysFromNow)
-                .orderBy("expirationDate", Query.Direction.ASCENDING)
-                .addSnapshotListener((snapshots, error) -> {
-                    if (error != null) {
-                        liveData.setValue(new ArrayList<>());
-                        return;
-                    }
-
-                    if (snapshots != null) {
-                        List<PantryItem> items = new ArrayList<>();
-                        for (QueryDocumentSnapshot doc : snapshots) {
-                            PantryItem item = doc.toObject(PantryItem.class);
-                            item.setId(doc.getId());
-                            items.add(item);
-                        }
-                        liveData.setValue(items);
-                    }
-                });
+        // Listen up to the end of the third day rather than the current
+        // instant, so calls on the same day build equal queries and share one
+        // listener; items past threeDaysFromNow are dropped here instead
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        Date endOfThirdDay = calendar.getTime();
+
+        return FirestoreLiveData.forQuery(
+                getPantryItemsCollection(userId)
+                        .whereLessThan("expirationDate", endOfThirdDay)
+                        .orderBy("expirationDate", Query.Direction.ASCENDING),
+                snapshots -> toItemsExpiringBy(snapshots, threeDaysFromNow), new ArrayList<>());
+    }
 
-        return liveData;
+    private static List<PantryItem> toItemsExpiringBy(QuerySnapshot snapshots, Date cutoff) {
+        List<PantryItem> items = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : snapshots) {
+            Date expirationDate = doc.getDate("expirationDate");
+            if (expirationDate != null && !expirationDate.after(cutoff)) {
+                items.add(toPantryItem(doc));
+            }
+        }
+        return items;
     }
 
     /**
@@ -133,6 +200,37 @@ public class FirebasePantryRepository {
                 });
     }
 
+    /**
+     * Get one page of pantry items sorted by (ingredientName, document id),
+     * starting after the given item, or from the start if after is null
+     */
+    public void getPantryItemsPage(String userId, PantryItem after, int limit,
+                                   RepositoryCallback<List<PantryItem>> callback) {
+        Query query = getPantryItemsCollection(userId)
+                .orderBy("ingredientName")
+                .orderBy(FieldPath.documentId())
+                .limit(limit);
+        if (after != null) {
+            // A null name is a valid cursor: Firestore orders null before any
+            // string, and documents missing the field are never in the results
+            query = query.startAfter(after.getIngredientName(), after.getId());
+        }
+
+        query.get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    List<PantryItem> items = new ArrayList<>();
+                    for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
+                        PantryItem item = doc.toObject(PantryItem.class);
+                        item.setId(doc.getId());
+                        items.add(item);
+                    }
+                    callback.onSuccess(items);
+                })
+                .addOnFailureListener(e -> {
+                    callback.onFailure(e.getMessage() != null ? e.getMessage() : "Failed to load pantry items");
+                });
+    }
+
     /**
      * Add new pantry item
      */
@@ -258,28 +356,10 @@ public class FirebasePantryRepository {
      * Get pantry items by category
      */
     public LiveData<List<PantryItem>> getPantryItemsByCategory(String userId, String category) {
-        MutableLiveData<List<PantryItem>> liveData = new MutableLiveData<>();
-
-        getPantryItemsCollection(userId)
-                .whereEqualTo("category", category)
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .addSnapshotListener((snapshots, error) -> {
-                    if (error != null) {
-                        liveData.setValue(new ArrayList<>());
-                        return;
-                    }
-
-                    if (snapshots != null) {
-                        List<PantryItem> items = new ArrayList<>();
-                        for (QueryDocumentSnapshot doc : snapshots) {
-                            PantryItem item = doc.toObject(PantryItem.class);
-                            item.setId(doc.getId());
-                            items.add(item);
-                        }
-                        liveData.setValue(items);
-                    }
-                });
-
-        return liveData;
+        return FirestoreLiveData.forQuery(
+                getPantryItemsCollection(userId)
+                        .whereEqualTo("category", category)
+                        .orderBy("createdAt", Query.Direction.DESCENDING),
+                FirebasePantryRepository::toPantryItems, new ArrayList<>());
     }
 }
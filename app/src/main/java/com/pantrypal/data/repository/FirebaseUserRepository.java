@@ -1,11 +1,11 @@
 package com.pantrypal.data.repository;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
 
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.pantrypal.data.firebase.FirestoreLiveData;
 import com.pantrypal.data.model.User;
 
 import java.util.Date;
@@ -47,27 +47,16 @@ public class FirebaseUserRepository {
      * Get user by ID with real-time updates
      */
     public LiveData<User> getUserById(String userId) {
-        MutableLiveData<User> liveData = new MutableLiveData<>();
-
-        getUserDocument(userId)
-                .addSnapshotListener((documentSnapshot, error) -> {
-                    if (error != null) {
-                        liveData.setValue(null);
-                        return;
-                    }
-
-                    if (documentSnapshot != null && documentSnapshot.exists()) {
-                        User user = documentSnapshot.toObject(User.class);
-                        if (user != null) {
-                            user.setId(documentSnapshot.getId());
-                            liveData.setValue(user);
-                        }
-                    } else {
-                        liveData.setValue(null);
-                    }
-                });
-
-        return liveData;
+        return FirestoreLiveData.forDocument(getUserDocument(userId), documentSnapshot -> {
+            if (!documentSnapshot.exists()) {
+                return null;
+            }
+            User user = documentSnapshot.toObject(User.class);
+            if (user != null) {
+                user.setId(documentSnapshot.getId());
+            }
+            return user;
+        }, null);
     }
 
     /**
@@ -4,13 +4,15 @@ import android.app.Application;
 import android.util.Log;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 
 import com.pantrypal.data.dao.PantryItemDao;
+import com.pantrypal.data.database.FtsQuery;
 import com.pantrypal.data.database.PantrypalDatabase;
 import com.pantrypal.data.model.PantryItem;
+import com.pantrypal.util.AppExecutors;
 
 import java.util.List;
-import java.util.concurrent.Executors;
 
 /**
  * Hybrid repository that syncs pantry items between Firebase (cloud) and Room (local)
@@ -18,25 +20,36 @@ import java.util.concurrent.Executors;
  */
 public class HybridPantryRepository {
     private static final String TAG = "HybridPantryRepo";
+    private static final int SEARCH_LIMIT = 50;
 
     private final PantryItemDao pantryItemDao;
     private final FirebasePantryRepository firebaseRepo;
+    private final AppExecutors executors;
 
     public HybridPantryRepository(Application application) {
+        this(application, AppExecutors.getInstance());
+    }
+
+    public HybridPantryRepository(Application application, AppExecutors executors) {
         PantrypalDatabase db = PantrypalDatabase.getDatabase(application);
         this.pantryItemDao = db.pantryItemDao();
         this.firebaseRepo = new FirebasePantryRepository();
+        this.executors = executors;
     }
 
     /**
      * Get all pantry items for a user with real-time sync
      */
     public LiveData<List<PantryItem>> getAllItemsByUser(String userId) {
-        // Start listening to Firebase updates
-        syncItemsFromFirebase(userId);
-
-        // Return Room LiveData (offline-first)
-        return pantryItemDao.getAllItemsByUser(userId);
+        // Room LiveData (offline-first), kept in sync with Firebase while observed
+        MediatorLiveData<List<PantryItem>> items = new MediatorLiveData<>();
+        items.addSource(pantryItemDao.getAllItemsByUser(userId), items::setValue);
+        items.addSource(firebaseRepo.getPantryChanges(userId), changes -> {
+            if (changes != null) {
+                syncItemsFromFirebase(userId, changes);
+            }
+        });
+        return items;
     }
 
     /**
@@ -50,7 +63,11 @@ public class HybridPantryRepository {
      * Search items
      */
     public LiveData<List<PantryItem>> searchItems(String userId, String query) {
-        return pantryItemDao.searchItems(userId, query);
+        String match = FtsQuery.prefixMatch(query);
+        if (match.isEmpty()) {
+            return pantryItemDao.searchItems(userId, query);
+        }
+        return pantryItemDao.searchItemsFts(userId, match, FtsQuery.firstTerm(query), SEARCH_LIMIT);
     }
 
     /**
@@ -71,15 +88,11 @@ public class HybridPantryRepository {
      * Add or update pantry item (writes to both Room and Firebase)
      */
     public void saveItem(PantryItem item, RepositoryCallback<Void> callback) {
-        // Save to Room first (offline support)
-        Executors.newSingleThreadExecutor().execute(() -> {
+        // Save to Room first (offline support), unsynced until Firebase confirms
+        item.setSynced(false);
+        executors.diskIO().execute(() -> {
             try {
-                PantryItem existingItem = pantryItemDao.getItemByIdSync(item.getId());
-                if (existingItem != null) {
-                    pantryItemDao.update(item);
-                } else {
-                    pantryItemDao.insert(item);
-                }
+                pantryItemDao.upsert(item);
                 Log.d(TAG, "✅ Item saved to Room: " + item.getId());
 
                 // Then sync to Firebase (if online)
@@ -87,13 +100,15 @@ public class HybridPantryRepository {
                     @Override
                     public void onSuccess(Void data) {
                         Log.d(TAG, "✅ Item synced to Firebase: " + item.getId());
+                        executors.diskIO().execute(() -> pantryItemDao.markSynced(item.getId()));
                         if (callback != null) callback.onSuccess(null);
                     }
 
                     @Override
                     public void onFailure(String error) {
                         Log.w(TAG, "⚠️ Firebase sync failed (offline?): " + error);
-                        // Still report success since Room save succeeded
+                        // Still report success since Room save succeeded; the
+                        // row stays unsynced, so a remote sync will not delete it
                         if (callback != null) callback.onSuccess(null);
                     }
                 });
@@ -108,7 +123,7 @@ public class HybridPantryRepository {
      * Delete pantry item from both Room and Firebase
      */
     public void deleteItem(String userId, String itemId, RepositoryCallback<Void> callback) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        executors.diskIO().execute(() -> {
             try {
                 pantryItemDao.deleteItemById(userId, itemId);
                 Log.d(TAG, "✅ Item deleted from Room: " + itemId);
@@ -135,27 +150,20 @@ public class HybridPantryRepository {
     }
 
     /**
-     * Sync pantry items from Firebase to Room (real-time updates)
+     * Apply the pantry items that changed in Firebase to Room
+     *
+     * Only the documents that changed in each snapshot are applied, in one
+     * Room transaction, so one remote edit writes one row. Remote deletions
+     * are applied too.
      */
-    private void syncItemsFromFirebase(String userId) {
-        firebaseRepo.getPantryItemsByUser(userId).observeForever(firebaseItems -> {
-            if (firebaseItems != null && !firebaseItems.isEmpty()) {
-                // Update Room with latest Firebase data
-                Executors.newSingleThreadExecutor().execute(() -> {
-                    try {
-                        for (PantryItem item : firebaseItems) {
-                            PantryItem existingItem = pantryItemDao.getItemByIdSync(item.getId());
-                            if (existingItem != null) {
-                                pantryItemDao.update(item);
-                            } else {
-                                pantryItemDao.insert(item);
-                            }
-                        }
-                        Log.d(TAG, "✅ Synced " + firebaseItems.size() + " items from Firebase to Room");
-                    } catch (Exception e) {
-                        Log.e(TAG, "❌ Error syncing items from Firebase: " + e.getMessage());
-                    }
-                });
+    private void syncItemsFromFirebase(String userId, FirebasePantryRepository.PantryChanges changes) {
+        executors.diskIO().execute(() -> {
+            try {
+                int written = pantryItemDao.applyRemoteChanges(userId, changes.getChanged(),
+                        changes.getRemovedIds(), changes.isComplete());
+                Log.d(TAG, "✅ Synced " + written + " item changes from Firebase to Room");
+            } catch (Exception e) {
+                Log.e(TAG, "❌ Error syncing items from Firebase: " + e.getMessage());
             }
         });
     }
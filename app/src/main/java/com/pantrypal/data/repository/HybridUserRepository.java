@@ -9,8 +9,7 @@ import androidx.lifecycle.MediatorLiveData;
 import com.pantrypal.data.dao.UserDao;
 import com.pantrypal.data.database.PantrypalDatabase;
 import com.pantrypal.data.model.User;
-
-import java.util.concurrent.Executors;
+import com.pantrypal.util.AppExecutors;
 
 /**
  * Hybrid repository that syncs data between Firebase (cloud) and Room (local)
@@ -21,22 +20,32 @@ public class HybridUserRepository {
 
     private final UserDao userDao;
     private final FirebaseUserRepository firebaseRepo;
+    private final AppExecutors executors;
 
     public HybridUserRepository(Application application) {
+        this(application, AppExecutors.getInstance());
+    }
+
+    public HybridUserRepository(Application application, AppExecutors executors) {
         PantrypalDatabase db = PantrypalDatabase.getDatabase(application);
         this.userDao = db.userDao();
         this.firebaseRepo = new FirebaseUserRepository();
+        this.executors = executors;
     }
 
     /**
      * Get user by ID with real-time sync from Firebase to Room
      */
     public LiveData<User> getUserById(String userId) {
-        // Start listening to Firebase updates
-        syncUserFromFirebase(userId);
-
-        // Return Room LiveData (offline-first)
-        return userDao.getUserById(userId);
+        // Room LiveData (offline-first), kept in sync with Firebase while observed
+        MediatorLiveData<User> user = new MediatorLiveData<>();
+        user.addSource(userDao.getUserById(userId), user::setValue);
+        user.addSource(firebaseRepo.getUserById(userId), firebaseUser -> {
+            if (firebaseUser != null) {
+                syncUserFromFirebase(firebaseUser);
+            }
+        });
+        return user;
     }
 
     /**
@@ -51,14 +60,9 @@ public class HybridUserRepository {
      */
     public void saveUser(User user, RepositoryCallback<Void> callback) {
         // Save to Room first (offline support)
-        Executors.newSingleThreadExecutor().execute(() -> {
+        executors.diskIO().execute(() -> {
             try {
-                User existingUser = userDao.getUserByIdSync(user.getId());
-                if (existingUser != null) {
-                    userDao.update(user);
-                } else {
-                    userDao.insert(user);
-                }
+                userDao.upsert(user);
                 Log.d(TAG, "✅ User saved to Room: " + user.getId());
 
                 // Then sync to Firebase (if online)
@@ -94,7 +98,7 @@ public class HybridUserRepository {
      * Delete user from both Room and Firebase
      */
     public void deleteUser(String userId, RepositoryCallback<Void> callback) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        executors.diskIO().execute(() -> {
             try {
                 User user = userDao.getUserByIdSync(userId);
                 if (user != null) {
@@ -124,25 +128,15 @@ public class HybridUserRepository {
     }
 
     /**
-     * Sync user data from Firebase to Room (real-time updates)
+     * Write the latest Firebase copy of a user to Room
      */
-    private void syncUserFromFirebase(String userId) {
-        firebaseRepo.getUserById(userId).observeForever(firebaseUser -> {
-            if (firebaseUser != null) {
-                // Update Room with latest Firebase data
-                Executors.newSingleThreadExecutor().execute(() -> {
-                    try {
-                        User existingUser = userDao.getUserByIdSync(userId);
-                        if (existingUser != null) {
-                            userDao.update(firebaseUser);
-                        } else {
-                            userDao.insert(firebaseUser);
-                        }
-                        Log.d(TAG, "✅ User synced from Firebase to Room: " + userId);
-                    } catch (Exception e) {
-                        Log.e(TAG, "❌ Error syncing user from Firebase: " + e.getMessage());
-                    }
-                });
+    private void syncUserFromFirebase(User firebaseUser) {
+        executors.diskIO().execute(() -> {
+            try {
+                userDao.upsert(firebaseUser);
+                Log.d(TAG, "✅ User synced from Firebase to Room: " + firebaseUser.getId());
+            } catch (Exception e) {
+                Log.e(TAG, "❌ Error syncing user from Firebase: " + e.getMessage());
             }
         });
     }
@@ -2,77 +2,85 @@ package com.pantrypal.data.repository;
 
 import android.app.Application;
 
+import androidx.lifecycle.LiveData;
+
 import com.pantrypal.data.dao.IngredientDao;
+import com.pantrypal.data.database.FtsQuery;
 import com.pantrypal.data.database.PantrypalDatabase;
 import com.pantrypal.data.model.Ingredient;
+import com.pantrypal.data.service.IngredientDictionary;
+import com.pantrypal.util.AppExecutors;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class IngredientRepository {
+    private static final int SEARCH_LIMIT = 50;
+
+    private static final AtomicBoolean dictionarySeeded = new AtomicBoolean();
+
     private IngredientDao ingredientDao;
+    private AppExecutors executors;
 
     public IngredientRepository(Application application) {
+        this(application, AppExecutors.getInstance());
+    }
+
+    public IngredientRepository(Application application, AppExecutors executors) {
         PantrypalDatabase db = PantrypalDatabase.getDatabase(application);
         ingredientDao = db.ingredientDao();
+        this.executors = executors;
+        seedIngredientDictionary(ingredientDao, executors);
+    }
+
+    /**
+     * Intern every ingredient name in the table so recipe matching uses their
+     * ids. Reads the table once per process; ingredients written later are
+     * interned by insert() and update().
+     */
+    static void seedIngredientDictionary(IngredientDao ingredientDao, AppExecutors executors) {
+        if (dictionarySeeded.compareAndSet(false, true)) {
+            executors.diskIO().execute(() -> IngredientDictionary.getInstance().seed(ingredientDao.getAllNames()));
+        }
     }
 
     public void insert(Ingredient ingredient) {
-        new Thread(() -> ingredientDao.insert(ingredient)).start();
+        internName(ingredient);
+        executors.diskIO().execute(() -> ingredientDao.insert(ingredient));
     }
 
     public void update(Ingredient ingredient) {
-        new Thread(() -> ingredientDao.update(ingredient)).start();
+        internName(ingredient);
+        executors.diskIO().execute(() -> ingredientDao.update(ingredient));
+    }
+
+    private void internName(Ingredient ingredient) {
+        if (ingredient.getName() != null) {
+            IngredientDictionary.getInstance().intern(ingredient.getName().toLowerCase());
+        }
     }
 
     public void delete(Ingredient ingredient) {
-        new Thread(() -> ingredientDao.delete(ingredient)).start();
+        executors.diskIO().execute(() -> ingredientDao.delete(ingredient));
     }
 
-    public List<Ingredient> getAllIngredients() {
-        List<Ingredient>[] ingredients = new List[1];
-        Thread thread = new Thread(() -> ingredients[0] = ingredientDao.getAllIngredients());
-        thread.start();
-        try {
-            thread.join();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        return ingredients[0];
+    public LiveData<List<Ingredient>> getAllIngredients() {
+        return ingredientDao.getAllIngredients();
     }
 
-    public List<Ingredient> getIngredientsByCategory(String category) {
-        List<Ingredient>[] ingredients = new List[1];
-        Thread thread = new Thread(() -> ingredients[0] = ingredientDao.getIngredientsByCategory(category));
-        thread.start();
-        try {
-            thread.join();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        return ingredients[0];
+    public LiveData<List<Ingredient>> getIngredientsByCategory(String category) {
+        return ingredientDao.getIngredientsByCategory(category);
     }
 
-    public List<Ingredient> searchIngredients(String query) {
-        List<Ingredient>[] ingredients = new List[1];
-        Thread thread = new Thread(() -> ingredients[0] = ingredientDao.searchIngredients(query));
-        thread.start();
-        try {
-            thread.join();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    public LiveData<List<Ingredient>> searchIngredients(String query) {
+        String match = FtsQuery.prefixMatch(query);
+        if (match.isEmpty()) {
+            return ingredientDao.searchIngredients(query);
         }
-        return ingredients[0];
+        return ingredientDao.searchIngredientsFts(match, FtsQuery.firstTerm(query), SEARCH_LIMIT);
     }
 
-    public List<String> getAllCategories() {
-        List<String>[] categories = new List[1];
-        Thread thread = new Thread(() -> categories[0] = ingredientDao.getAllCategories());
-        thread.start();
-        try {
-            thread.join();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        return categories[0];
+    public LiveData<List<String>> getAllCategories() {
+        return ingredientDao.getAllCategories();
     }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.pantrypal.data.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads a sorted list one page at a time. Each page starts after the last
+ * item loaded so far (keyset pagination), so a page costs the same no matter
+ * how deep the list has been scrolled.
+ *
+ * refresh() only reloads the pages around the position last reported through
+ * setAnchor(). The other loaded pages are marked stale and reloaded when the
+ * anchor reaches them, so a change costs about two pages however many are
+ * loaded.
+ */
+public class KeysetPager<T> {
+
+    /**
+     * Loads up to limit items sorted after the given item, or from the start
+     * if after is null. Delivers null on failure.
+     */
+    public interface PageSource<T> {
+        void loadPage(T after, int limit, PageCallback<T> callback);
+    }
+
+    public interface PageCallback<T> {
+        void onPage(List<T> page);
+    }
+
+    private static class Page<T> {
+        final List<T> items;
+        boolean stale;
+
+        Page(List<T> items) {
+            this.items = items;
+        }
+    }
+
+    // Pages reloaded by refresh(): the one holding the anchor and the next,
+    // which together cover any screen
+    private static final int WINDOW_PAGES = 2;
+
+    private final PageSource<T> source;
+    private final int pageSize;
+    private final MutableLiveData<List<T>> items = new MutableLiveData<>();
+    private final List<Page<T>> pages = new ArrayList<>();
+    private int anchor;
+    private boolean loading;
+    private boolean endReached;
+    // Incremented by refresh(); pages requested before it are dropped
+    private int generation;
+    private Runnable onClose;
+
+    public KeysetPager(int pageSize, PageSource<T> source) {
+        this.pageSize = pageSize;
+        this.source = source;
+    }
+
+    /**
+     * Every item loaded so far, in order
+     */
+    public LiveData<List<T>> getItems() {
+        return items;
+    }
+
+    public synchronized boolean isEndReached() {
+        return endReached;
+    }
+
+    /**
+     * Load the next page unless one is already loading or the end was reached
+     */
+    public synchronized void loadNextPage() {
+        if (loading || endReached) {
+            return;
+        }
+        if (!pages.isEmpty() && pages.get(pages.size() - 1).stale) {
+            // Continue from where the last page ends now, not where it ended
+            loadPage(pages.size() - 1);
+            return;
+        }
+        loadPage(pages.size());
+    }
+
+    /**
+     * Position of an item on screen, e.g. the first visible one. Stale pages
+     * around it are reloaded.
+     */
+    public synchronized void setAnchor(int position) {
+        anchor = Math.max(position, 0);
+        if (!loading) {
+            loadStalePageInWindow();
+        }
+    }
+
+    /**
+     * Mark every loaded page stale and reload those around the anchor, e.g.
+     * after the underlying data changed
+     */
+    public synchronized void refresh() {
+        generation++;
+        loading = false;
+        if (pages.isEmpty()) {
+            loadPage(0);
+            return;
+        }
+        for (Page<T> page : pages) {
+            page.stale = true;
+        }
+        loadStalePageInWindow();
+    }
+
+    /**
+     * Run when the pager is closed, e.g. to stop watching for changes
+     */
+    public synchronized void setOnClose(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    public void close() {
+        Runnable closeAction;
+        synchronized (this) {
+            generation++;
+            closeAction = onClose;
+            onClose = null;
+        }
+        if (closeAction != null) {
+            closeAction.run();
+        }
+    }
+
+    private void loadStalePageInWindow() {
+        int first = pageAt(anchor);
+        int end = Math.min(first + WINDOW_PAGES, pages.size());
+        for (int index = first; index < end; index++) {
+            if (pages.get(index).stale) {
+                loadPage(index);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Index of the page holding a position, or of the last page past the end
+     */
+    private int pageAt(int position) {
+        int start = 0;
+        for (int index = 0; index < pages.size(); index++) {
+            start += pages.get(index).items.size();
+            if (position < start) {
+                return index;
+            }
+        }
+        return Math.max(pages.size() - 1, 0);
+    }
+
+    /**
+     * Load the page at index, replacing it if it is loaded, or appending it
+     * if index is the page count
+     */
+    private void loadPage(int index) {
+        loading = true;
+        int requestGeneration = generation;
+        T after = index == 0 ? null : lastItemOf(pages.get(index - 1));
+        source.loadPage(after, pageSize, page -> onPageLoaded(requestGeneration, index, page));
+    }
+
+    private static <T> T lastItemOf(Page<T> page) {
+        return page.items.get(page.items.size() - 1);
+    }
+
+    private synchronized void onPageLoaded(int requestGeneration, int index, List<T> page) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        loading = false;
+        if (page == null) {
+            return;
+        }
+        if (index < pages.size()) {
+            pages.set(index, new Page<>(new ArrayList<>(page)));
+            // Later fresh pages started after this page's old last item
+            for (int later = index + 1; later < pages.size(); later++) {
+                pages.get(later).stale = true;
+            }
+        } else if (!page.isEmpty()) {
+            pages.add(new Page<>(new ArrayList<>(page)));
+        }
+        endReached = page.size() < pageSize;
+        if (endReached) {
+            // A short page is the last one
+            int end = page.isEmpty() ? index : index + 1;
+            pages.subList(Math.min(end, pages.size()), pages.size()).clear();
+        }
+        postItems();
+        loadStalePageInWindow();
+    }
+
+    private void postItems() {
+        List<T> all = new ArrayList<>();
+        for (Page<T> page : pages) {
+            all.addAll(page.items);
+        }
+        items.postValue(all);
+    }
+}
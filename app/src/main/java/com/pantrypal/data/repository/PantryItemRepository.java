@@ -5,29 +5,39 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 
 import com.pantrypal.data.dao.PantryItemDao;
+import com.pantrypal.data.database.FtsQuery;
 import com.pantrypal.data.database.PantrypalDatabase;
 import com.pantrypal.data.model.PantryItem;
+import com.pantrypal.util.AppExecutors;
 
 import java.util.List;
 
 public class PantryItemRepository {
+    private static final int SEARCH_LIMIT = 50;
+
     private PantryItemDao pantryItemDao;
+    private AppExecutors executors;
 
     public PantryItemRepository(Application application) {
+        this(application, AppExecutors.getInstance());
+    }
+
+    public PantryItemRepository(Application application, AppExecutors executors) {
         PantrypalDatabase db = PantrypalDatabase.getDatabase(application);
         pantryItemDao = db.pantryItemDao();
+        this.executors = executors;
     }
 
     public void insert(PantryItem pantryItem) {
-        new Thread(() -> pantryItemDao.insert(pantryItem)).start();
+        executors.diskIO().execute(() -> pantryItemDao.insert(pantryItem));
     }
 
     public void update(PantryItem pantryItem) {
-        new Thread(() -> pantryItemDao.update(pantryItem)).start();
+        executors.diskIO().execute(() -> pantryItemDao.update(pantryItem));
     }
 
     public void delete(PantryItem pantryItem) {
-        new Thread(() -> pantryItemDao.delete(pantryItem)).start();
+        executors.diskIO().execute(() -> pantryItemDao.delete(pantryItem));
     }
 
     public LiveData<List<PantryItem>> getAllItemsByUser(String userId) {
@@ -39,7 +49,11 @@ public class PantryItemRepository {
     }
 
     public LiveData<List<PantryItem>> searchItems(String userId, String query) {
-        return pantryItemDao.searchItems(userId, query);
+        String match = FtsQuery.prefixMatch(query);
+        if (match.isEmpty()) {
+            return pantryItemDao.searchItems(userId, query);
+        }
+        return pantryItemDao.searchItemsFts(userId, match, FtsQuery.firstTerm(query), SEARCH_LIMIT);
     }
 
     public LiveData<List<PantryItem>> getExpiringItems(String userId, long expiryThreshold) {
@@ -51,6 +65,6 @@ public class PantryItemRepository {
     }
 
     public void deleteItemById(String userId, String itemId) {
-        new Thread(() -> pantryItemDao.deleteItemById(userId, itemId)).start();
+        executors.diskIO().execute(() -> pantryItemDao.deleteItemById(userId, itemId));
     }
 }
\ No newline at end of file
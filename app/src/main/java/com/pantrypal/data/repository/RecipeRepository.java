@@ -2,32 +2,61 @@ package com.pantrypal.data.repository;
 
 import android.app.Application;
 
+import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
 
 import com.pantrypal.data.dao.RecipeDao;
+import com.pantrypal.data.database.FtsQuery;
 import com.pantrypal.data.database.PantrypalDatabase;
+import com.pantrypal.data.model.DietaryTags;
 import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.RecipeMatch;
+import com.pantrypal.data.model.RecipeSummary;
+import com.pantrypal.data.service.RecipeIngredientCache;
+import com.pantrypal.data.service.RecommendationCache;
+import com.pantrypal.util.AppExecutors;
 
 import java.util.List;
+import java.util.Set;
 
 public class RecipeRepository {
+    private static final int SEARCH_LIMIT = 50;
+
     private RecipeDao recipeDao;
+    private InvalidationTracker invalidationTracker;
+    private AppExecutors executors;
 
     public RecipeRepository(Application application) {
+        this(application, AppExecutors.getInstance());
+    }
+
+    public RecipeRepository(Application application, AppExecutors executors) {
         PantrypalDatabase db = PantrypalDatabase.getDatabase(application);
         recipeDao = db.recipeDao();
+        invalidationTracker = db.getInvalidationTracker();
+        this.executors = executors;
+
+        // Give known ingredients their dictionary ids before the catalog is first indexed
+        IngredientRepository.seedIngredientDictionary(db.ingredientDao(), executors);
     }
 
     public void insert(Recipe recipe) {
-        new Thread(() -> recipeDao.insert(recipe)).start();
+        RecipeIngredientCache.invalidate(recipe.getId());
+        RecommendationCache.getInstance().invalidate();
+        executors.diskIO().execute(() -> recipeDao.insert(recipe));
     }
 
     public void update(Recipe recipe) {
-        new Thread(() -> recipeDao.update(recipe)).start();
+        RecipeIngredientCache.invalidate(recipe.getId());
+        RecommendationCache.getInstance().invalidate();
+        executors.diskIO().execute(() -> recipeDao.update(recipe));
     }
 
     public void delete(Recipe recipe) {
-        new Thread(() -> recipeDao.delete(recipe)).start();
+        RecipeIngredientCache.invalidate(recipe.getId());
+        RecommendationCache.getInstance().invalidate();
+        executors.diskIO().execute(() -> recipeDao.delete(recipe));
     }
 
     public LiveData<Recipe> getRecipeById(int recipeId) {
@@ -38,6 +67,50 @@ public class RecipeRepository {
         return recipeDao.getFavoriteRecipes();
     }
 
+    /**
+     * Favorites sorted by name, loaded a page at a time. The pages around the
+     * anchor are reloaded when recipes change; close() the pager when done
+     * with it.
+     */
+    public KeysetPager<RecipeSummary> getFavoriteRecipesPager(int pageSize) {
+        return watchRecipes(new KeysetPager<>(pageSize, (after, limit, callback) ->
+                executors.diskIO().execute(() -> callback.onPage(after == null
+                        ? recipeDao.getFavoriteRecipesPage(limit)
+                        : recipeDao.getFavoriteRecipesPageAfter(after.getName(), after.getId(), limit)))));
+    }
+
+    /**
+     * The catalog by matchPercentage, loaded a page at a time. Pass null to
+     * skip the category or dietary preference filter; both run in the page
+     * query, so every page is full until the end. The pages around the
+     * anchor are reloaded when recipes change; close() the pager when done
+     * with it.
+     */
+    public KeysetPager<RecipeSummary> getTopRecipesPager(int pageSize, String category,
+                                                         String dietaryPreference) {
+        String dietPref = dietaryPreference != null ? dietaryPreference.toLowerCase() : null;
+        int dietTag = dietPref != null ? DietaryTags.forPreference(dietPref) : 0;
+        // Diets without a tag match recipes whose category names them
+        String dietKeyword = dietPref != null && dietTag == 0 ? dietPref : null;
+        return watchRecipes(new KeysetPager<>(pageSize, (after, limit, callback) ->
+                executors.diskIO().execute(() -> callback.onPage(after == null
+                        ? recipeDao.getTopRecipesPage(category, dietTag, dietKeyword, limit)
+                        : recipeDao.getTopRecipesPageAfter(category, dietTag, dietKeyword,
+                                after.getMatchPercentage(), after.getId(), limit)))));
+    }
+
+    private <T> KeysetPager<T> watchRecipes(KeysetPager<T> pager) {
+        InvalidationTracker.Observer observer = new InvalidationTracker.Observer("recipes") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                pager.refresh();
+            }
+        };
+        invalidationTracker.addObserver(observer);
+        pager.setOnClose(() -> invalidationTracker.removeObserver(observer));
+        return pager;
+    }
+
     public LiveData<List<Recipe>> getRecipesByCategory(String category, int limit) {
         return recipeDao.getRecipesByCategory(category, limit);
     }
@@ -46,8 +119,27 @@ public class RecipeRepository {
         return recipeDao.getTopRecipes(limit);
     }
 
+    public LiveData<List<RecipeSummary>> getTopRecipeSummaries(int limit) {
+        return recipeDao.getTopRecipeSummaries(limit);
+    }
+
+    /**
+     * Recipes ranked by the share of their ingredients the user's pantry
+     * matches, re-queried whenever the pantry or the recipes change
+     */
+    public LiveData<List<RecipeMatch>> getBestPantryMatches(String userId, int limit) {
+        return recipeDao.getBestPantryMatches(userId, limit);
+    }
+
+    /**
+     * Prefix search over recipe names, descriptions and ingredients, best matches first
+     */
     public LiveData<List<Recipe>> searchRecipes(String query) {
-        return recipeDao.searchRecipes(query);
+        String match = FtsQuery.prefixMatch(query);
+        if (match.isEmpty()) {
+            return recipeDao.searchRecipes(query);
+        }
+        return recipeDao.searchRecipesFts(match, FtsQuery.firstTerm(query), SEARCH_LIMIT);
     }
 
     public LiveData<List<Recipe>> getRecipesInCategory(String category) {
@@ -55,11 +147,11 @@ public class RecipeRepository {
     }
 
     public void addToFavorites(int recipeId) {
-        new Thread(() -> recipeDao.addToFavorites(recipeId)).start();
+        executors.diskIO().execute(() -> recipeDao.addToFavorites(recipeId));
     }
 
     public void removeFromFavorites(int recipeId) {
-        new Thread(() -> recipeDao.removeFromFavorites(recipeId)).start();
+        executors.diskIO().execute(() -> recipeDao.removeFromFavorites(recipeId));
     }
 
     public LiveData<Integer> getFavoritesCount() {
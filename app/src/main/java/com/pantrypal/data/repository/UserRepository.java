@@ -7,43 +7,42 @@ import androidx.lifecycle.LiveData;
 import com.pantrypal.data.dao.UserDao;
 import com.pantrypal.data.database.PantrypalDatabase;
 import com.pantrypal.data.model.User;
+import com.pantrypal.util.AppExecutors;
 
 public class UserRepository {
     private UserDao userDao;
     private LiveData<User> currentUser;
+    private AppExecutors executors;
 
     public UserRepository(Application application) {
+        this(application, AppExecutors.getInstance());
+    }
+
+    public UserRepository(Application application, AppExecutors executors) {
         PantrypalDatabase db = PantrypalDatabase.getDatabase(application);
         userDao = db.userDao();
         currentUser = userDao.getCurrentUser();
+        this.executors = executors;
     }
 
     public void insert(User user) {
-        new Thread(() -> userDao.insert(user)).start();
+        executors.diskIO().execute(() -> userDao.insert(user));
     }
 
     public void update(User user) {
-        new Thread(() -> userDao.update(user)).start();
+        executors.diskIO().execute(() -> userDao.update(user));
     }
 
     public void delete(User user) {
-        new Thread(() -> userDao.delete(user)).start();
+        executors.diskIO().execute(() -> userDao.delete(user));
     }
 
     public LiveData<User> getUserById(String userId) {
         return userDao.getUserById(userId);
     }
 
-    public User getUserByEmail(String email) {
-        User[] user = new User[1];
-        Thread thread = new Thread(() -> user[0] = userDao.getUserByEmail(email));
-        thread.start();
-        try {
-            thread.join();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        return user[0];
+    public LiveData<User> getUserByEmail(String email) {
+        return userDao.getUserByEmail(email);
     }
 
     public LiveData<User> getCurrentUser() {
@@ -0,0 +1,135 @@
+package com.pantrypal.data.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Aho-Corasick automaton over a fixed set of patterns. Finds which patterns
+ * occur inside a text in a single pass over the text.
+ */
+class AhoCorasickAutomaton {
+    private static final int ROOT = 0;
+
+    private final TransitionTable transitions = new TransitionTable();
+    private final int[] failure;
+    // Pattern ending at each state, or NONE
+    private final int[] patternAt;
+    // Nearest state on the failure chain that ends a pattern, or NONE
+    private final int[] outputLink;
+    private final boolean matchesEmptyPattern;
+
+    AhoCorasickAutomaton(String[] patterns) {
+        this(patterns, null);
+    }
+
+    /**
+     * Build over patterns that report patternIds[i] instead of their index i
+     */
+    AhoCorasickAutomaton(String[] patterns, int[] patternIds) {
+        transitions.addState();
+        int[] endingPattern = new int[16];
+        Arrays.fill(endingPattern, TransitionTable.NONE);
+        boolean emptyPattern = false;
+
+        for (int id = 0; id < patterns.length; id++) {
+            String pattern = patterns[id];
+            if (pattern.isEmpty()) {
+                emptyPattern = true;
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                int next = transitions.get(state, pattern.charAt(i));
+                if (next == TransitionTable.NONE) {
+                    next = transitions.addState();
+                    transitions.set(state, pattern.charAt(i), next);
+                }
+                state = next;
+            }
+            if (state >= endingPattern.length) {
+                int oldLength = endingPattern.length;
+                endingPattern = Arrays.copyOf(endingPattern, Math.max(state + 1, oldLength * 2));
+                Arrays.fill(endingPattern, oldLength, endingPattern.length, TransitionTable.NONE);
+            }
+            if (endingPattern[state] == TransitionTable.NONE) {
+                endingPattern[state] = patternIds != null ? patternIds[id] : id;
+            }
+        }
+
+        int stateCount = transitions.size();
+        patternAt = Arrays.copyOf(endingPattern, stateCount);
+        failure = new int[stateCount];
+        outputLink = new int[stateCount];
+        matchesEmptyPattern = emptyPattern;
+        Arrays.fill(outputLink, TransitionTable.NONE);
+
+        // Breadth-first pass to fill failure and output links
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < transitions.degree(ROOT); i++) {
+            int child = transitions.targetAt(ROOT, i);
+            failure[child] = ROOT;
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            for (int i = 0; i < transitions.degree(state); i++) {
+                char c = transitions.labelAt(state, i);
+                int child = transitions.targetAt(state, i);
+
+                int fallback = failure[state];
+                while (fallback != ROOT && transitions.get(fallback, c) == TransitionTable.NONE) {
+                    fallback = failure[fallback];
+                }
+                int target = transitions.get(fallback, c);
+                failure[child] = target != TransitionTable.NONE && target != child ? target : ROOT;
+
+                int link = failure[child];
+                outputLink[child] = patternAt[link] != TransitionTable.NONE ? link : outputLink[link];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    /**
+     * Whether any pattern occurs in the text
+     */
+    boolean matchesAny(String text) {
+        if (matchesEmptyPattern) {
+            return true;
+        }
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            if (patternAt[state] != TransitionTable.NONE || outputLink[state] != TransitionTable.NONE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Set the ids of all non-empty patterns occurring in the text
+     */
+    void collectMatches(String text, BitSet matches) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            int output = patternAt[state] != TransitionTable.NONE ? state : outputLink[state];
+            while (output != TransitionTable.NONE) {
+                matches.set(patternAt[output]);
+                output = outputLink[output];
+            }
+        }
+    }
+
+    private int step(int state, char c) {
+        int next = transitions.get(state, c);
+        while (next == TransitionTable.NONE && state != ROOT) {
+            state = failure[state];
+            next = transitions.get(state, c);
+        }
+        return next == TransitionTable.NONE ? ROOT : next;
+    }
+}
@@ -0,0 +1,254 @@
+package com.pantrypal.data.service;
+
+import com.pantrypal.data.model.PantryItem;
+import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.User;
+import com.pantrypal.data.service.RecipeRecommendationService.RecipeRecommendation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Stateful recommendation engine that applies pantry deltas instead of
+ * rescoring the whole catalog.
+ *
+ * Keeps, per recipe, how many of its ingredients the pantry covers, and a
+ * ranking of all positive-scoring recipes. Adding, removing or renaming a
+ * pantry item only rescores the recipes listing an ingredient that the item
+ * matches. Results equal RecipeRecommendationService.recommendRecipes for the
+ * same catalog, pantry and user.
+ */
+public class IncrementalRecommendationEngine {
+
+    private List<Recipe> recipes = new ArrayList<>();
+    private IngredientIndex index = IngredientIndex.build(recipes);
+
+    // Pantry state: item id -> lowercased name, and how many items carry each name
+    private final Map<String, String> pantryItemNames = new HashMap<>();
+    private final Map<String, Integer> pantryNameCounts = new HashMap<>();
+    private final Map<String, int[]> matchingKeysByName = new HashMap<>();
+
+    // How many distinct pantry names match each index key
+    private int[] keyMatchCounts = new int[0];
+    private int[] matchedCounts = new int[0];
+
+    private double[] dietaryScores = new double[0];
+    private double[] nutritionScores = new double[0];
+    private double[] scores = new double[0];
+    private TreeSet<Integer> ranking = new TreeSet<>(this::compareRanks);
+
+    private User currentUser;
+    private boolean hasUser;
+    private String dietaryPreferences;
+    private int remainingCalories;
+
+    // Recipes touched by the delta being applied
+    private final BitSet dirty = new BitSet();
+
+    /**
+     * Replace the recipe catalog and rescore everything against the current pantry
+     */
+    public synchronized void setCatalog(List<Recipe> allRecipes) {
+        if (allRecipes == recipes && index.isCurrentFor(allRecipes)) {
+            return;
+        }
+        recipes = allRecipes;
+        index = IngredientIndex.forCatalog(allRecipes);
+        matchingKeysByName.clear();
+
+        keyMatchCounts = new int[index.keyCount()];
+        matchedCounts = new int[allRecipes.size()];
+        for (String name : pantryNameCounts.keySet()) {
+            for (int keyId : matchingKeys(name)) {
+                if (keyMatchCounts[keyId]++ == 0) {
+                    for (int position : index.getPostings(keyId)) {
+                        matchedCounts[position]++;
+                    }
+                }
+            }
+        }
+
+        dietaryScores = new double[allRecipes.size()];
+        nutritionScores = new double[allRecipes.size()];
+        scores = new double[allRecipes.size()];
+        rescoreAll();
+    }
+
+    /**
+     * Update the user; rescoring happens only if a field used for scoring changed
+     */
+    public synchronized void setUser(User user) {
+        boolean changed = hasUser != (user != null)
+                || (user != null && (!Objects.equals(dietaryPreferences, user.getDietaryPreferences())
+                        || remainingCalories != user.getRemainingCalories()));
+        hasUser = user != null;
+        dietaryPreferences = user != null ? user.getDietaryPreferences() : null;
+        remainingCalories = user != null ? user.getRemainingCalories() : 0;
+        currentUser = user;
+
+        if (changed) {
+            rescoreAll();
+        }
+    }
+
+    /**
+     * Bring the engine in line with a full pantry snapshot, applying only the
+     * items that were added, removed or renamed since the last snapshot
+     */
+    public synchronized void setPantry(List<PantryItem> pantryItems) {
+        Map<String, String> remaining = new HashMap<>(pantryItemNames);
+        for (PantryItem item : pantryItems) {
+            String previous = remaining.remove(item.getId());
+            String name = normalize(item.getIngredientName());
+            if (previous == null) {
+                addName(item.getId(), name);
+            } else if (!previous.equals(name)) {
+                removeName(item.getId(), previous);
+                addName(item.getId(), name);
+            }
+        }
+        for (Map.Entry<String, String> removed : remaining.entrySet()) {
+            removeName(removed.getKey(), removed.getValue());
+        }
+        rescoreDirty();
+    }
+
+    public synchronized void addPantryItem(PantryItem item) {
+        String previous = pantryItemNames.get(item.getId());
+        if (previous != null) {
+            removeName(item.getId(), previous);
+        }
+        addName(item.getId(), normalize(item.getIngredientName()));
+        rescoreDirty();
+    }
+
+    public synchronized void removePantryItem(String itemId) {
+        String previous = pantryItemNames.get(itemId);
+        if (previous != null) {
+            removeName(itemId, previous);
+            rescoreDirty();
+        }
+    }
+
+    public synchronized void renamePantryItem(String itemId, String ingredientName) {
+        String previous = pantryItemNames.get(itemId);
+        String name = normalize(ingredientName);
+        if (previous != null && previous.equals(name)) {
+            return;
+        }
+        if (previous != null) {
+            removeName(itemId, previous);
+        }
+        addName(itemId, name);
+        rescoreDirty();
+    }
+
+    /**
+     * Current best recommendations, highest score first
+     */
+    public synchronized List<RecipeRecommendation> getTopRecommendations(int maxResults) {
+        List<RecipeRecommendation> recommendations = new ArrayList<>(Math.min(maxResults, ranking.size()));
+        Iterator<Integer> ranked = ranking.iterator();
+        while (recommendations.size() < maxResults && ranked.hasNext()) {
+            int position = ranked.next();
+            recommendations.add(new RecipeRecommendation(recipes.get(position), scores[position]));
+        }
+        return recommendations;
+    }
+
+    private void addName(String itemId, String name) {
+        pantryItemNames.put(itemId, name);
+        if (pantryNameCounts.merge(name, 1, Integer::sum) > 1) {
+            return;
+        }
+        for (int keyId : matchingKeys(name)) {
+            if (keyMatchCounts[keyId]++ == 0) {
+                for (int position : index.getPostings(keyId)) {
+                    matchedCounts[position]++;
+                    dirty.set(position);
+                }
+            }
+        }
+    }
+
+    private void removeName(String itemId, String name) {
+        pantryItemNames.remove(itemId);
+        int count = pantryNameCounts.get(name);
+        if (count > 1) {
+            pantryNameCounts.put(name, count - 1);
+            return;
+        }
+        pantryNameCounts.remove(name);
+        for (int keyId : matchingKeys(name)) {
+            if (--keyMatchCounts[keyId] == 0) {
+                for (int position : index.getPostings(keyId)) {
+                    matchedCounts[position]--;
+                    dirty.set(position);
+                }
+            }
+        }
+        matchingKeysByName.remove(name);
+    }
+
+    private int[] matchingKeys(String name) {
+        int[] keys = matchingKeysByName.get(name);
+        if (keys == null) {
+            BitSet matched = new BitSet();
+            index.collectMatchingKeys(name, matched);
+            keys = matched.stream().toArray();
+            matchingKeysByName.put(name, keys);
+        }
+        return keys;
+    }
+
+    private void rescoreAll() {
+        ranking = new TreeSet<>(this::compareRanks);
+        for (int position = 0; position < recipes.size(); position++) {
+            Recipe recipe = recipes.get(position);
+            dietaryScores[position] = RecipeRecommendationService.calculateDietaryScore(recipe, currentUser);
+            nutritionScores[position] = RecipeRecommendationService.calculateNutritionScore(recipe, currentUser);
+            scores[position] = score(position);
+            if (scores[position] > 0) {
+                ranking.add(position);
+            }
+        }
+        dirty.clear();
+    }
+
+    private void rescoreDirty() {
+        for (int position = dirty.nextSetBit(0); position >= 0; position = dirty.nextSetBit(position + 1)) {
+            // Remove before changing the score the ranking is ordered by
+            ranking.remove(position);
+            scores[position] = score(position);
+            if (scores[position] > 0) {
+                ranking.add(position);
+            }
+        }
+        dirty.clear();
+    }
+
+    private double score(int position) {
+        double pantryMatchScore = 0.0;
+        int totalIngredients = index.getIngredientCount(position);
+        if (totalIngredients != 0) {
+            double matchPercentage = (double) matchedCounts[position] / totalIngredients;
+            pantryMatchScore = matchPercentage * 50.0;
+        }
+        return 0.0 + pantryMatchScore + dietaryScores[position] + nutritionScores[position];
+    }
+
+    private int compareRanks(int a, int b) {
+        int byScore = Double.compare(scores[b], scores[a]);
+        return byScore != 0 ? byScore : Integer.compare(a, b);
+    }
+
+    private static String normalize(String ingredientName) {
+        return ingredientName.toLowerCase();
+    }
+}
@@ -0,0 +1,89 @@
+package com.pantrypal.data.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global dictionary interning lowercased ingredient names to dense int ids.
+ * Ids are assigned in first-seen order and never change for the life of the
+ * process, so parsed recipes and indexes can store ids instead of strings.
+ * Seeding from the ingredients table gives the known ingredients the low ids.
+ */
+public class IngredientDictionary {
+
+    private static final IngredientDictionary INSTANCE = new IngredientDictionary();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private volatile int size;
+
+    IngredientDictionary() {
+    }
+
+    public static IngredientDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the id of a lowercased ingredient name, assigning the next id if it is new
+     */
+    public int intern(String normalizedName) {
+        Integer id = ids.get(normalizedName);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(normalizedName);
+            if (id != null) {
+                return id;
+            }
+            int next = size;
+            if (next == names.length) {
+                names = Arrays.copyOf(names, next * 2);
+            }
+            names[next] = normalizedName;
+            // Publish the name before the id becomes visible to lock-free readers
+            size = next + 1;
+            ids.put(normalizedName, next);
+            return next;
+        }
+    }
+
+    /**
+     * Get the id of a lowercased ingredient name, or -1 if it was never interned
+     */
+    public int idOf(String normalizedName) {
+        Integer id = ids.get(normalizedName);
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown ingredient id: " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * Number of interned names; every id is below this
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Intern ingredient names loaded from the ingredients table
+     */
+    public void seed(List<String> ingredientNames) {
+        if (ingredientNames == null) {
+            return;
+        }
+        for (String name : ingredientNames) {
+            if (name != null) {
+                intern(name.toLowerCase());
+            }
+        }
+    }
+}
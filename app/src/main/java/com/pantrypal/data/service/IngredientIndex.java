@@ -0,0 +1,550 @@
+package com.pantrypal.data.service;
+
+import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.service.RecipeIngredientCache.ParsedIngredients;
+
+import java.lang.ref.SoftReference;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Inverted index from interned ingredient id to the catalog positions of the
+ * recipes that use it, with each recipe's ingredient ids as a sorted array.
+ * Keys are IngredientDictionary ids, so one pantry bitset can be tested
+ * against any recipe without comparing strings.
+ *
+ * Matching a pantry against the index resolves each pantry name to the
+ * ingredient ids it matches (exact, or either name containing the other).
+ * Keys inside a pantry name are found with an Aho-Corasick pass over the
+ * name; keys containing it are found by binary search over the sorted key
+ * suffixes. Match counts then come from the postings of the matched ids, so
+ * the cost follows the recipes the pantry touches rather than the catalog
+ * size, or, when the pantry matches a large share of the catalog, from one
+ * sequential pass testing every recipe's ids against the pantry bitset.
+ *
+ * forCatalog reuses the last index while the catalog is unchanged. For a
+ * catalog made with frozenCatalog that check is constant time: the same list
+ * instance and no scoring edit to any recipe since (see
+ * Recipe.getScoringVersion). Any other list may have had recipes replaced in
+ * place, so its elements are compared by identity.
+ *
+ * Threshold queries ("which recipes reach 90%?") skip recipes whose counts
+ * already rule them out and stop testing a recipe as soon as its hits or
+ * misses decide it.
+ */
+public class IngredientIndex {
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    // Walk postings only while they cover less than 1/4 of all ingredient entries
+    private static final int POSTINGS_FRACTION = 4;
+
+    // Soft so an index nobody uses any more does not pin its catalog in memory
+    private static SoftReference<IngredientIndex> lastIndex = new SoftReference<>(null);
+
+    private final List<Recipe> recipes;
+    // The recipes the index was built from, and Recipe.getScoringVersion() then
+    private final Recipe[] indexedRecipes;
+    private final long scoringVersion;
+    private final int[] ingredientCounts;
+    // Ingredient count minus repeated ids; bounds how many pantry keys can hit a recipe
+    private final int[] distinctCounts;
+    private final int maxIngredientCount;
+
+    // Ingredient ids of the recipe at position p: ingredientIds[offsets[p]..offsets[p + 1]), sorted
+    private final int[] recipeOffsets;
+    private final int[] recipeIngredientIds;
+
+    // Indexed by dictionary id; null / empty for ids no recipe in the catalog uses
+    private final String[] keys;
+    private final int[][] postings;
+    private final BitSet catalogKeys;
+    private final int emptyKeyId;
+    private final AhoCorasickAutomaton keyAutomaton;
+
+    // Every suffix of every key, sorted, as (key id, offset) pairs
+    private final int[] suffixKeys;
+    private final int[] suffixOffsets;
+
+    private IngredientIndex(List<Recipe> recipes) {
+        // Read the version first: an edit made while building must invalidate
+        this.scoringVersion = Recipe.getScoringVersion();
+        this.recipes = recipes;
+        this.ingredientCounts = new int[recipes.size()];
+        this.distinctCounts = new int[recipes.size()];
+        this.indexedRecipes = new Recipe[recipes.size()];
+
+        // First pass: parse (interning names) and size the id arrays
+        ParsedIngredients[] parsed = new ParsedIngredients[recipes.size()];
+        int totalIngredients = 0;
+        int maxCount = 0;
+        int idLimit = 0;
+        for (int position = 0; position < recipes.size(); position++) {
+            Recipe recipe = recipes.get(position);
+            indexedRecipes[position] = recipe;
+            ParsedIngredients ingredients = RecipeIngredientCache.get(recipe);
+            if (!ingredients.isComplete()) {
+                continue;
+            }
+            parsed[position] = ingredients;
+            ingredientCounts[position] = ingredients.size();
+            totalIngredients += ingredients.size();
+            maxCount = Math.max(maxCount, ingredients.size());
+            for (int i = 0; i < ingredients.size(); i++) {
+                idLimit = Math.max(idLimit, ingredients.getIngredientId(i) + 1);
+            }
+        }
+
+        recipeOffsets = new int[recipes.size() + 1];
+        recipeIngredientIds = new int[totalIngredients];
+        int[] postingCounts = new int[idLimit];
+        int next = 0;
+        for (int position = 0; position < parsed.length; position++) {
+            recipeOffsets[position] = next;
+            ParsedIngredients ingredients = parsed[position];
+            if (ingredients == null) {
+                continue;
+            }
+            for (int i = 0; i < ingredients.size(); i++) {
+                int id = ingredients.getIngredientId(i);
+                recipeIngredientIds[next++] = id;
+                postingCounts[id]++;
+            }
+            Arrays.sort(recipeIngredientIds, recipeOffsets[position], next);
+            int distinct = 0;
+            for (int i = recipeOffsets[position]; i < next; i++) {
+                if (i == recipeOffsets[position] || recipeIngredientIds[i] != recipeIngredientIds[i - 1]) {
+                    distinct++;
+                }
+            }
+            distinctCounts[position] = distinct;
+        }
+        recipeOffsets[parsed.length] = next;
+        maxIngredientCount = maxCount;
+
+        // Second pass: fill postings in catalog order
+        IngredientDictionary dictionary = IngredientDictionary.getInstance();
+        keys = new String[idLimit];
+        postings = new int[idLimit][];
+        catalogKeys = new BitSet(idLimit);
+        for (int id = 0; id < idLimit; id++) {
+            if (postingCounts[id] == 0) {
+                postings[id] = NO_POSTINGS;
+                continue;
+            }
+            keys[id] = dictionary.nameOf(id);
+            postings[id] = new int[postingCounts[id]];
+            catalogKeys.set(id);
+        }
+        int[] filled = new int[idLimit];
+        for (int position = 0; position < recipes.size(); position++) {
+            for (int i = recipeOffsets[position]; i < recipeOffsets[position + 1]; i++) {
+                int id = recipeIngredientIds[i];
+                postings[id][filled[id]++] = position;
+            }
+        }
+
+        int emptyId = dictionary.idOf("");
+        emptyKeyId = emptyId >= 0 && catalogKeys.get(emptyId) ? emptyId : -1;
+
+        int[] keyIds = catalogKeys.stream().toArray();
+        String[] keyNames = new String[keyIds.length];
+        int suffixCount = 0;
+        for (int i = 0; i < keyIds.length; i++) {
+            keyNames[i] = keys[keyIds[i]];
+            suffixCount += keyNames[i].length();
+        }
+        keyAutomaton = new AhoCorasickAutomaton(keyNames, keyIds);
+
+        long[] suffixes = new long[suffixCount];
+        next = 0;
+        for (int id : keyIds) {
+            for (int offset = 0; offset < keys[id].length(); offset++) {
+                suffixes[next++] = ((long) id << 32) | offset;
+            }
+        }
+        sortSuffixes(suffixes, new long[suffixCount], 0, suffixCount);
+
+        suffixKeys = new int[suffixCount];
+        suffixOffsets = new int[suffixCount];
+        for (int i = 0; i < suffixCount; i++) {
+            suffixKeys[i] = (int) (suffixes[i] >>> 32);
+            suffixOffsets[i] = (int) suffixes[i];
+        }
+    }
+
+    /**
+     * Merge sort of packed (key id, offset) suffixes in [from, to) by suffix
+     * text, on primitives so the sort does not box every entry
+     */
+    private void sortSuffixes(long[] suffixes, long[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortSuffixes(suffixes, buffer, from, mid);
+        sortSuffixes(suffixes, buffer, mid, to);
+        if (compareSuffixes(suffixes[mid - 1], suffixes[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(suffixes, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && compareSuffixes(buffer[left], buffer[right]) <= 0)) {
+                suffixes[i] = buffer[left++];
+            } else {
+                suffixes[i] = buffer[right++];
+            }
+        }
+    }
+
+    private int compareSuffixes(long a, long b) {
+        return compareSuffixes(keys[(int) (a >>> 32)], (int) a, keys[(int) (b >>> 32)], (int) b);
+    }
+
+    /**
+     * Build an index over a recipe catalog
+     */
+    public static IngredientIndex build(List<Recipe> recipes) {
+        return new IngredientIndex(recipes);
+    }
+
+    /**
+     * Get the index for a catalog, reusing the last one built if the catalog
+     * still holds the same recipes, none of them edited since. Pass an
+     * unmodifiable list to make the check constant time.
+     */
+    public static synchronized IngredientIndex forCatalog(List<Recipe> recipes) {
+        IngredientIndex index = lastIndex.get();
+        if (index == null || !index.isCurrentFor(recipes)) {
+            index = new IngredientIndex(recipes);
+            lastIndex = new SoftReference<>(index);
+        }
+        return index;
+    }
+
+    /**
+     * Whether the index still describes a catalog: same recipe instances in
+     * the same positions, no recipe edited since
+     */
+    boolean isCurrentFor(List<Recipe> catalog) {
+        if (Recipe.getScoringVersion() != scoringVersion || catalog.size() != indexedRecipes.length) {
+            return false;
+        }
+        if (catalog == recipes && catalog instanceof FrozenCatalog) {
+            return true;
+        }
+        for (int position = 0; position < indexedRecipes.length; position++) {
+            if (catalog.get(position) != indexedRecipes[position]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An unmodifiable copy of a catalog, which forCatalog and
+     * IncrementalRecommendationEngine.setCatalog recognise in constant time
+     */
+    public static List<Recipe> frozenCatalog(List<Recipe> recipes) {
+        if (recipes instanceof FrozenCatalog) {
+            return recipes;
+        }
+        return new FrozenCatalog(recipes.toArray(new Recipe[0]));
+    }
+
+    private static final class FrozenCatalog extends AbstractList<Recipe> implements RandomAccess {
+        private final Recipe[] recipes;
+
+        FrozenCatalog(Recipe[] recipes) {
+            this.recipes = recipes;
+        }
+
+        @Override
+        public Recipe get(int index) { return recipes[index]; }
+
+        @Override
+        public int size() { return recipes.length; }
+    }
+
+    public int size() { return recipes.size(); }
+
+    public Recipe getRecipe(int position) { return recipes.get(position); }
+
+    /**
+     * Number of ingredients of the recipe at a catalog position, or 0 if its
+     * ingredients could not be parsed
+     */
+    public int getIngredientCount(int position) { return ingredientCounts[position]; }
+
+    /**
+     * Count, for every recipe sharing at least one ingredient with the pantry,
+     * how many of its ingredients the pantry covers
+     */
+    public CatalogMatch match(Set<String> pantryIngredients) {
+        return match(matchingKeys(pantryIngredients));
+    }
+
+    /**
+     * Dictionary ids of every key a pantry matches
+     */
+    public BitSet matchingKeys(Set<String> pantryIngredients) {
+        BitSet pantryKeys = new BitSet(keys.length);
+        for (String pantryItem : pantryIngredients) {
+            collectMatchingKeys(pantryItem, pantryKeys);
+        }
+        return pantryKeys;
+    }
+
+    /**
+     * Catalog positions, ascending, of the recipes whose pantry match score
+     * (see CatalogMatch.getPantryMatchScore) is at least minScore
+     */
+    public int[] matchAtLeast(BitSet pantryKeys, double minScore) {
+        return thresholdScan(pantryKeys, minScore).collect(0, recipes.size());
+    }
+
+    ThresholdScan thresholdScan(BitSet pantryKeys, double minScore) {
+        return new ThresholdScan(pantryKeys, minScore);
+    }
+
+    /**
+     * Count matches for a pantry given as the set of dictionary ids it covers
+     */
+    public CatalogMatch match(BitSet pantryKeys) {
+        long visited = 0;
+        for (int id = pantryKeys.nextSetBit(0); id >= 0 && id < keys.length; id = pantryKeys.nextSetBit(id + 1)) {
+            visited += postings[id].length;
+        }
+        if (visited * POSTINGS_FRACTION < recipeIngredientIds.length) {
+            return matchByPostings(pantryKeys, (int) visited);
+        }
+        return matchByScan(pantryKeys);
+    }
+
+    /**
+     * Gather the postings of the matched ids and count repeats, touching only
+     * the recipes the pantry hits
+     */
+    private CatalogMatch matchByPostings(BitSet pantryKeys, int visited) {
+        int[] hits = new int[visited];
+        int next = 0;
+        for (int id = pantryKeys.nextSetBit(0); id >= 0 && id < keys.length; id = pantryKeys.nextSetBit(id + 1)) {
+            System.arraycopy(postings[id], 0, hits, next, postings[id].length);
+            next += postings[id].length;
+        }
+        Arrays.sort(hits);
+
+        int[] candidates = new int[visited];
+        int[] matchedCounts = new int[visited];
+        int candidateCount = 0;
+        for (int i = 0; i < visited; i++) {
+            if (i == 0 || hits[i] != hits[i - 1]) {
+                candidates[candidateCount++] = hits[i];
+            }
+            matchedCounts[candidateCount - 1]++;
+        }
+        return new CatalogMatch(this, Arrays.copyOf(candidates, candidateCount),
+                Arrays.copyOf(matchedCounts, candidateCount));
+    }
+
+    private CatalogMatch matchByScan(BitSet pantryKeys) {
+        long[] words = pantryKeys.toLongArray();
+        int[] candidates = new int[16];
+        int[] matchedCounts = new int[16];
+        int candidateCount = 0;
+        for (int position = 0; position < recipes.size(); position++) {
+            int matched = 0;
+            for (int i = recipeOffsets[position]; i < recipeOffsets[position + 1]; i++) {
+                int id = recipeIngredientIds[i];
+                int word = id >>> 6;
+                if (word < words.length && (words[word] & (1L << id)) != 0) {
+                    matched++;
+                }
+            }
+            if (matched > 0) {
+                if (candidateCount == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                    matchedCounts = Arrays.copyOf(matchedCounts, candidateCount * 2);
+                }
+                candidates[candidateCount] = position;
+                matchedCounts[candidateCount++] = matched;
+            }
+        }
+        return new CatalogMatch(this, Arrays.copyOf(candidates, candidateCount),
+                Arrays.copyOf(matchedCounts, candidateCount));
+    }
+
+    /**
+     * Number of key slots; every key is an IngredientDictionary id below this
+     */
+    int keyCount() { return keys.length; }
+
+    /**
+     * Catalog positions listed under a key, once per occurrence
+     */
+    int[] getPostings(int keyId) { return postings[keyId]; }
+
+    /**
+     * Mark every key equal to, containing, or contained in a pantry name
+     */
+    void collectMatchingKeys(String pantryItem, BitSet matchedKeys) {
+        if (pantryItem.isEmpty()) {
+            matchedKeys.or(catalogKeys);
+            return;
+        }
+
+        // Keys that contain the pantry name: suffixes starting with it
+        int low = 0;
+        int high = suffixKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareSuffixes(keys[suffixKeys[mid]], suffixOffsets[mid], pantryItem, 0) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < suffixKeys.length
+                && keys[suffixKeys[i]].startsWith(pantryItem, suffixOffsets[i]); i++) {
+            matchedKeys.set(suffixKeys[i]);
+        }
+
+        // Keys contained in the pantry name
+        if (emptyKeyId >= 0) {
+            matchedKeys.set(emptyKeyId);
+        }
+        keyAutomaton.collectMatches(pantryItem, matchedKeys);
+    }
+
+    private static int compareSuffixes(String a, int aOffset, String b, int bOffset) {
+        int aLength = a.length() - aOffset;
+        int bLength = b.length() - bOffset;
+        int limit = Math.min(aLength, bLength);
+        for (int i = 0; i < limit; i++) {
+            char ac = a.charAt(aOffset + i);
+            char bc = b.charAt(bOffset + i);
+            if (ac != bc) {
+                return ac - bc;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    /**
+     * One pantry and score threshold, ready to test ranges of the catalog
+     */
+    final class ThresholdScan {
+        private final long[] words;
+        private final int pantryKeyCount;
+        // Fewest matched ingredients reaching the threshold, by ingredient count
+        private final int[] requiredMatches;
+
+        private ThresholdScan(BitSet pantryKeys, double minScore) {
+            BitSet catalogPantryKeys = (BitSet) pantryKeys.clone();
+            catalogPantryKeys.and(catalogKeys);
+            this.words = catalogPantryKeys.toLongArray();
+            this.pantryKeyCount = catalogPantryKeys.cardinality();
+
+            requiredMatches = new int[maxIngredientCount + 1];
+            for (int count = 1; count <= maxIngredientCount; count++) {
+                // Same arithmetic as getPantryMatchScore, so rounding agrees exactly
+                int required = Math.max(0, (int) (minScore / 50.0 * count) - 1);
+                while (required <= count && (double) required / count * 50.0 < minScore) {
+                    required++;
+                }
+                requiredMatches[count] = required;
+            }
+            // Unparsed or empty recipes score 0
+            requiredMatches[0] = minScore <= 0.0 ? 0 : 1;
+        }
+
+        /**
+         * Positions in [from, to) reaching the threshold, ascending
+         */
+        int[] collect(int from, int to) {
+            int[] matches = new int[16];
+            int matchCount = 0;
+            for (int position = from; position < to; position++) {
+                if (reachesThreshold(position)) {
+                    if (matchCount == matches.length) {
+                        matches = Arrays.copyOf(matches, matchCount * 2);
+                    }
+                    matches[matchCount++] = position;
+                }
+            }
+            return Arrays.copyOf(matches, matchCount);
+        }
+
+        private boolean reachesThreshold(int position) {
+            int count = ingredientCounts[position];
+            int required = requiredMatches[count];
+            if (required == 0) {
+                return true;
+            }
+            // Each pantry key hits at most one distinct id; repeated ids may all hit
+            int repeated = count - distinctCounts[position];
+            if (required > repeated + Math.min(distinctCounts[position], pantryKeyCount)) {
+                return false;
+            }
+
+            int allowedMisses = count - required;
+            int matched = 0;
+            int missed = 0;
+            for (int i = recipeOffsets[position]; i < recipeOffsets[position + 1]; i++) {
+                int id = recipeIngredientIds[i];
+                int word = id >>> 6;
+                if (word < words.length && (words[word] & (1L << id)) != 0) {
+                    if (++matched == required) {
+                        return true;
+                    }
+                } else if (++missed > allowedMisses) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Result of matching a pantry against the index
+     */
+    public static class CatalogMatch {
+        private final IngredientIndex index;
+        // Sorted positions of the recipes hit, and the matched count of each
+        private final int[] candidates;
+        private final int[] matchedCounts;
+
+        CatalogMatch(IngredientIndex index, int[] candidates, int[] matchedCounts) {
+            this.index = index;
+            this.candidates = candidates;
+            this.matchedCounts = matchedCounts;
+        }
+
+        /**
+         * Catalog positions of recipes with at least one matched ingredient, ascending
+         */
+        public int[] getCandidates() { return candidates; }
+
+        public int getMatchedCount(int position) {
+            int candidate = Arrays.binarySearch(candidates, position);
+            return candidate >= 0 ? matchedCounts[candidate] : 0;
+        }
+
+        /**
+         * Pantry match on the 0-50 point scale used by recommendations
+         */
+        public double getPantryMatchScore(int position) {
+            int totalIngredients = index.ingredientCounts[position];
+            if (totalIngredients == 0) return 0.0;
+
+            double matchPercentage = (double) getMatchedCount(position) / totalIngredients;
+            return matchPercentage * 50.0;
+        }
+    }
+}
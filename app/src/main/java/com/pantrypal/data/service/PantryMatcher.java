@@ -0,0 +1,140 @@
+package com.pantrypal.data.service;
+
+import com.pantrypal.data.model.PantryItem;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Precompiled matcher for one pantry snapshot. A recipe ingredient matches
+ * when it equals a pantry name, contains one (e.g. "chicken breast" for
+ * "chicken") or is contained in one (e.g. "chicken" for "chicken breast").
+ *
+ * An Aho-Corasick automaton over the pantry names answers the first two
+ * cases and a generalized suffix automaton answers the third, so each check
+ * runs in time linear in the ingredient name regardless of pantry size.
+ */
+public class PantryMatcher {
+    private static final int ROOT = 0;
+
+    private final Set<String> pantryIngredients;
+    private final AhoCorasickAutomaton containedNames;
+
+    // Generalized suffix automaton over all pantry names
+    private final TransitionTable suffixTransitions = new TransitionTable();
+    private int[] suffixLink = new int[16];
+    private int[] suffixLength = new int[16];
+
+    /**
+     * Build a matcher over already lowercased pantry ingredient names
+     */
+    public PantryMatcher(Collection<String> pantryIngredients) {
+        this.pantryIngredients = new HashSet<>(pantryIngredients);
+        this.containedNames = new AhoCorasickAutomaton(
+                this.pantryIngredients.toArray(new String[0]));
+
+        addSuffixState(TransitionTable.NONE, 0);
+        for (String name : this.pantryIngredients) {
+            int last = ROOT;
+            for (int i = 0; i < name.length(); i++) {
+                last = extend(last, name.charAt(i));
+            }
+        }
+    }
+
+    /**
+     * Build a matcher from pantry items, lowercasing their names
+     */
+    public static PantryMatcher forPantry(List<PantryItem> pantryItems) {
+        Set<String> names = new HashSet<>();
+        for (PantryItem item : pantryItems) {
+            names.add(item.getIngredientName().toLowerCase());
+        }
+        return new PantryMatcher(names);
+    }
+
+    /**
+     * Lowercased pantry ingredient names this matcher was built from
+     */
+    public Set<String> getPantryIngredients() {
+        return pantryIngredients;
+    }
+
+    /**
+     * Check if the pantry contains a lowercased recipe ingredient (handles partial matches)
+     */
+    public boolean matches(String recipeIngredient) {
+        if (pantryIngredients.isEmpty()) {
+            return false;
+        }
+        return containedNames.matchesAny(recipeIngredient) || isPantrySubstring(recipeIngredient);
+    }
+
+    private boolean isPantrySubstring(String text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = suffixTransitions.get(state, text.charAt(i));
+            if (state == TransitionTable.NONE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int extend(int last, char c) {
+        int existing = suffixTransitions.get(last, c);
+        if (existing != TransitionTable.NONE) {
+            // The prefix is already known from an earlier name
+            if (suffixLength[last] + 1 == suffixLength[existing]) {
+                return existing;
+            }
+            return split(last, c, existing);
+        }
+
+        int current = addSuffixState(TransitionTable.NONE, suffixLength[last] + 1);
+        int state = last;
+        while (state != TransitionTable.NONE && suffixTransitions.get(state, c) == TransitionTable.NONE) {
+            suffixTransitions.set(state, c, current);
+            state = suffixLink[state];
+        }
+
+        if (state == TransitionTable.NONE) {
+            suffixLink[current] = ROOT;
+        } else {
+            int next = suffixTransitions.get(state, c);
+            if (suffixLength[state] + 1 == suffixLength[next]) {
+                suffixLink[current] = next;
+            } else {
+                // split() may grow the state arrays, so resolve it before indexing
+                int clone = split(state, c, next);
+                suffixLink[current] = clone;
+            }
+        }
+        return current;
+    }
+
+    private int split(int state, char c, int next) {
+        int clone = addSuffixState(suffixLink[next], suffixLength[state] + 1);
+        suffixTransitions.copy(next, clone);
+        while (state != TransitionTable.NONE && suffixTransitions.get(state, c) == next) {
+            suffixTransitions.set(state, c, clone);
+            state = suffixLink[state];
+        }
+        suffixLink[next] = clone;
+        return clone;
+    }
+
+    private int addSuffixState(int link, int length) {
+        int state = suffixTransitions.addState();
+        if (state == suffixLink.length) {
+            suffixLink = Arrays.copyOf(suffixLink, state * 2);
+            suffixLength = Arrays.copyOf(suffixLength, state * 2);
+        }
+        suffixLink[state] = link;
+        suffixLength[state] = length;
+        return state;
+    }
+}
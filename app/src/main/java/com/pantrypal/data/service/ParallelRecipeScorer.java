@@ -0,0 +1,120 @@
+package com.pantrypal.data.service;
+
+import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join scoring for large catalogs. The catalog is split into ranges,
+ * each range keeps its own top-K, and the partial results are merged. Ties
+ * are broken by catalog position, so results equal the sequential path.
+ */
+class ParallelRecipeScorer {
+
+    // Ranges smaller than this are scored on one thread
+    private static final int PARTITION_SIZE = 4096;
+
+    private static ForkJoinPool pool;
+
+    /**
+     * Bounded pool that leaves one core for the main thread
+     */
+    static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    static TopKSelector selectTop(List<Recipe> allRecipes, IngredientIndex.CatalogMatch pantryMatch,
+                                  User user, int maxResults) {
+        return getPool().invoke(new TopRecipesTask(allRecipes, pantryMatch, user, maxResults, 0, allRecipes.size()));
+    }
+
+    static List<Recipe> filterCanMake(List<Recipe> allRecipes, IngredientIndex.ThresholdScan canMakeScan) {
+        return getPool().invoke(new CanMakeTask(allRecipes, canMakeScan, 0, allRecipes.size()));
+    }
+
+    // ForkJoinTask is Serializable, but these tasks are never serialized
+    @SuppressWarnings("serial")
+    private static class TopRecipesTask extends RecursiveTask<TopKSelector> {
+        private final List<Recipe> allRecipes;
+        private final IngredientIndex.CatalogMatch pantryMatch;
+        private final User user;
+        private final int maxResults;
+        private final int from;
+        private final int to;
+
+        TopRecipesTask(List<Recipe> allRecipes, IngredientIndex.CatalogMatch pantryMatch, User user,
+                       int maxResults, int from, int to) {
+            this.allRecipes = allRecipes;
+            this.pantryMatch = pantryMatch;
+            this.user = user;
+            this.maxResults = maxResults;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopKSelector compute() {
+            if (to - from <= PARTITION_SIZE) {
+                TopKSelector topRecipes = new TopKSelector(Math.min(maxResults, to - from));
+                RecipeRecommendationService.scoreRange(allRecipes, pantryMatch, user, from, to, topRecipes);
+                return topRecipes;
+            }
+
+            int middle = (from + to) >>> 1;
+            TopRecipesTask left = new TopRecipesTask(allRecipes, pantryMatch, user, maxResults, from, middle);
+            TopRecipesTask right = new TopRecipesTask(allRecipes, pantryMatch, user, maxResults, middle, to);
+            left.fork();
+            TopKSelector rightTop = right.compute();
+            TopKSelector leftTop = left.join();
+
+            TopKSelector merged = new TopKSelector(Math.min(maxResults, leftTop.size() + rightTop.size()));
+            merged.addAll(leftTop);
+            merged.addAll(rightTop);
+            return merged;
+        }
+    }
+
+    // ForkJoinTask is Serializable, but these tasks are never serialized
+    @SuppressWarnings("serial")
+    private static class CanMakeTask extends RecursiveTask<List<Recipe>> {
+        private final List<Recipe> allRecipes;
+        private final IngredientIndex.ThresholdScan canMakeScan;
+        private final int from;
+        private final int to;
+
+        CanMakeTask(List<Recipe> allRecipes, IngredientIndex.ThresholdScan canMakeScan, int from, int to) {
+            this.allRecipes = allRecipes;
+            this.canMakeScan = canMakeScan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Recipe> compute() {
+            if (to - from <= PARTITION_SIZE) {
+                List<Recipe> canMake = new ArrayList<>();
+                RecipeRecommendationService.collectCanMake(allRecipes, canMakeScan, from, to, canMake);
+                return canMake;
+            }
+
+            int middle = (from + to) >>> 1;
+            CanMakeTask left = new CanMakeTask(allRecipes, canMakeScan, from, middle);
+            CanMakeTask right = new CanMakeTask(allRecipes, canMakeScan, middle, to);
+            left.fork();
+            List<Recipe> rightCanMake = right.compute();
+            List<Recipe> canMake = left.join();
+
+            // Left range first keeps catalog order
+            canMake.addAll(rightCanMake);
+            return canMake;
+        }
+    }
+}
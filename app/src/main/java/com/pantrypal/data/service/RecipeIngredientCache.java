@@ -0,0 +1,139 @@
+package com.pantrypal.data.service;
+
+import com.pantrypal.data.model.Recipe;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of parsed, normalized recipe ingredients keyed by recipe id.
+ * An entry is re-parsed whenever the recipe's ingredients JSON no longer
+ * matches the string it was built from, so edited rows never serve stale data.
+ */
+public class RecipeIngredientCache {
+
+    private static final Map<Integer, ParsedIngredients> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Get the parsed ingredients for a recipe, parsing them only on a cache miss
+     */
+    public static ParsedIngredients get(Recipe recipe) {
+        String source = recipe.getIngredients();
+        ParsedIngredients cached = cache.get(recipe.getId());
+        if (cached != null && cached.isParsedFrom(source)) {
+            return cached;
+        }
+
+        ParsedIngredients parsed = ParsedIngredients.parse(source);
+        cache.put(recipe.getId(), parsed);
+        return parsed;
+    }
+
+    /**
+     * Drop the cached entry for a recipe whose row was inserted, updated or deleted
+     */
+    public static void invalidate(int recipeId) {
+        cache.remove(recipeId);
+    }
+
+    /**
+     * Drop every cached entry
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Ingredient names of one recipe, as written, lowercased and interned
+     */
+    public static class ParsedIngredients {
+        private static final String[] EMPTY = new String[0];
+        private static final int[] NO_IDS = new int[0];
+
+        private final String source;
+        private final String[] names;
+        private final String[] normalizedNames;
+        private final int[] ingredientIds;
+        private final boolean complete;
+
+        private ParsedIngredients(String source, String[] names, String[] normalizedNames,
+                                  int[] ingredientIds, boolean complete) {
+            this.source = source;
+            this.names = names;
+            this.normalizedNames = normalizedNames;
+            this.ingredientIds = ingredientIds;
+            this.complete = complete;
+        }
+
+        /**
+         * Parse an ingredients JSON array. If an entry is malformed, the names read
+         * before it are kept but the result is marked incomplete.
+         */
+        static ParsedIngredients parse(String source) {
+            if (source == null || source.isEmpty()) {
+                return new ParsedIngredients(source, EMPTY, EMPTY, NO_IDS, false);
+            }
+
+            JSONArray ingredients;
+            try {
+                ingredients = new JSONArray(source);
+            } catch (JSONException e) {
+                return new ParsedIngredients(source, EMPTY, EMPTY, NO_IDS, false);
+            }
+
+            int length = ingredients.length();
+            String[] names = new String[length];
+            int parsed = 0;
+            boolean complete = true;
+
+            try {
+                for (; parsed < length; parsed++) {
+                    JSONObject ingredient = ingredients.getJSONObject(parsed);
+                    names[parsed] = ingredient.optString("name", "");
+                }
+            } catch (JSONException e) {
+                complete = false;
+            }
+
+            if (parsed < length) {
+                String[] truncated = new String[parsed];
+                System.arraycopy(names, 0, truncated, 0, parsed);
+                names = truncated;
+            }
+
+            IngredientDictionary dictionary = IngredientDictionary.getInstance();
+            String[] normalizedNames = new String[names.length];
+            int[] ingredientIds = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                normalizedNames[i] = names[i].toLowerCase();
+                ingredientIds[i] = dictionary.intern(normalizedNames[i]);
+            }
+
+            return new ParsedIngredients(source, names, normalizedNames, ingredientIds, complete);
+        }
+
+        boolean isParsedFrom(String candidate) {
+            return source == null ? candidate == null : source.equals(candidate);
+        }
+
+        /**
+         * Whether every entry parsed; incomplete recipes never score a pantry match
+         */
+        public boolean isComplete() { return complete; }
+
+        public int size() { return names.length; }
+
+        public String getName(int index) { return names[index]; }
+
+        public String getNormalizedName(int index) { return normalizedNames[index]; }
+
+        /**
+         * IngredientDictionary id of the lowercased name
+         */
+        public int getIngredientId(int index) { return ingredientIds[index]; }
+    }
+}
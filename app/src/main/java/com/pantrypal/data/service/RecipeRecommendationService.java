@@ -1,19 +1,19 @@
 package com.pantrypal.data.service;
 
+import com.pantrypal.data.model.DietaryTags;
 import com.pantrypal.data.model.PantryItem;
 import com.pantrypal.data.model.Recipe;
 import com.pantrypal.data.model.User;
-
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.pantrypal.data.service.RecipeIngredientCache.ParsedIngredients;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -25,6 +25,9 @@ import java.util.stream.Collectors;
  */
 public class RecipeRecommendationService {
 
+    private static final double MAX_DIETARY_SCORE = 30.0;
+    private static final double MAX_NUTRITION_SCORE = 20.0;
+
     /**
      * Recommend recipes based on user's pantry and preferences
      */
@@ -33,26 +36,99 @@ public class RecipeRecommendationService {
             List<PantryItem> pantryItems,
             User user,
             int maxResults) {
+        return recommendRecipes(allRecipes, pantryItems, user, maxResults, false);
+    }
 
-        List<RecipeRecommendation> recommendations = new ArrayList<>();
+    /**
+     * Recommend recipes, optionally scoring catalog partitions in parallel.
+     * Parallel results are identical to sequential ones; use it for large catalogs.
+     */
+    public static List<RecipeRecommendation> recommendRecipes(
+            List<Recipe> allRecipes,
+            List<PantryItem> pantryItems,
+            User user,
+            int maxResults,
+            boolean parallel) {
+
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("maxResults must not be negative: " + maxResults);
+        }
 
         // Get pantry ingredient names
         Set<String> pantryIngredients = pantryItems.stream()
                 .map(item -> item.getIngredientName().toLowerCase())
                 .collect(Collectors.toSet());
 
-        for (Recipe recipe : allRecipes) {
-            double score = calculateRecommendationScore(recipe, pantryIngredients, user);
+        // Only recipes sharing an ingredient with the pantry get a pantry match
+        IngredientIndex.CatalogMatch pantryMatch =
+                IngredientIndex.forCatalog(allRecipes).match(pantryIngredients);
+
+        // Keep only the best maxResults
+        TopKSelector topRecipes;
+        if (parallel) {
+            topRecipes = ParallelRecipeScorer.selectTop(allRecipes, pantryMatch, user, maxResults);
+        } else {
+            topRecipes = new TopKSelector(Math.min(maxResults, allRecipes.size()));
+            scoreRange(allRecipes, pantryMatch, user, 0, allRecipes.size(), topRecipes);
+        }
+
+        return toRecommendations(allRecipes, topRecipes);
+    }
+
+    /**
+     * Score the catalog positions [from, to) into a top-K selector, skipping
+     * recipes whose best possible score cannot enter it
+     */
+    static void scoreRange(List<Recipe> allRecipes, IngredientIndex.CatalogMatch pantryMatch,
+                           User user, int from, int to, TopKSelector topRecipes) {
+        for (int i = from; i < to; i++) {
+            double pantryMatchScore = pantryMatch.getPantryMatchScore(i);
+            if (!topRecipes.admits(pantryMatchScore + MAX_DIETARY_SCORE + MAX_NUTRITION_SCORE, i)) {
+                continue;
+            }
+
+            double score = calculateRecommendationScore(allRecipes.get(i), pantryMatchScore, user);
             if (score > 0) {
-                recommendations.add(new RecipeRecommendation(recipe, score));
+                topRecipes.offer(score, i);
             }
         }
+    }
+
+    /**
+     * Build recommendations for the selected recipes, highest score first
+     */
+    private static List<RecipeRecommendation> toRecommendations(List<Recipe> allRecipes, TopKSelector topRecipes) {
+        double[] scores = new double[topRecipes.size()];
+        int[] positions = new int[topRecipes.size()];
+        int count = topRecipes.drainBestFirst(scores, positions);
+
+        List<RecipeRecommendation> recommendations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            recommendations.add(new RecipeRecommendation(allRecipes.get(positions[i]), scores[i]));
+        }
+        return recommendations;
+    }
 
-        // Sort by score (highest first) and return top results
-        return recommendations.stream()
-                .sorted(Comparator.comparingDouble(RecipeRecommendation::getScore).reversed())
-                .limit(maxResults)
-                .collect(Collectors.toList());
+    /**
+     * Whether two catalogs list the same recipes in the same order with the
+     * same fields scoring reads, so a ranking of one holds for the other
+     */
+    public static boolean sameScoringInputs(List<Recipe> a, List<Recipe> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            Recipe x = a.get(i);
+            Recipe y = b.get(i);
+            if (x.getId() != y.getId()
+                    || x.getCalories() != y.getCalories()
+                    || x.getDietaryTags() != y.getDietaryTags()
+                    || !Objects.equals(x.getCategory(), y.getCategory())
+                    || !Objects.equals(x.getIngredients(), y.getIngredients())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -64,13 +140,13 @@ public class RecipeRecommendationService {
      */
     private static double calculateRecommendationScore(
             Recipe recipe,
-            Set<String> pantryIngredients,
+            double pantryMatchScore,
             User user) {
 
         double score = 0.0;
 
         // 1. Pantry Match Score (0-50 points)
-        score += calculatePantryMatchScore(recipe, pantryIngredients);
+        score += pantryMatchScore;
 
         // 2. Dietary Preference Score (0-30 points)
         score += calculateDietaryScore(recipe, user);
@@ -81,107 +157,34 @@ public class RecipeRecommendationService {
         return score;
     }
 
-    /**
-     * Calculate how well the recipe matches available pantry items
-     */
-    private static double calculatePantryMatchScore(Recipe recipe, Set<String> pantryIngredients) {
-        if (recipe.getIngredients() == null || recipe.getIngredients().isEmpty()) {
-            return 0.0;
-        }
-
-        try {
-            JSONArray ingredients = new JSONArray(recipe.getIngredients());
-            int totalIngredients = ingredients.length();
-            int matchedIngredients = 0;
-
-            for (int i = 0; i < totalIngredients; i++) {
-                JSONObject ingredient = ingredients.getJSONObject(i);
-                String name = ingredient.optString("name", "").toLowerCase();
-
-                // Check for exact or partial match
-                if (containsIngredient(pantryIngredients, name)) {
-                    matchedIngredients++;
-                }
-            }
-
-            if (totalIngredients == 0) return 0.0;
-
-            // Calculate match percentage and convert to 0-50 point scale
-            double matchPercentage = (double) matchedIngredients / totalIngredients;
-            return matchPercentage * 50.0;
-
-        } catch (JSONException e) {
-            return 0.0;
-        }
-    }
-
-    /**
-     * Check if pantry contains an ingredient (handles partial matches)
-     */
-    private static boolean containsIngredient(Set<String> pantryIngredients, String recipeIngredient) {
-        // Exact match
-        if (pantryIngredients.contains(recipeIngredient)) {
-            return true;
-        }
-
-        // Partial match (e.g., "chicken" matches "chicken breast")
-        for (String pantryItem : pantryIngredients) {
-            if (pantryItem.contains(recipeIngredient) || recipeIngredient.contains(pantryItem)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     /**
      * Calculate how well the recipe matches dietary preferences
      */
-    private static double calculateDietaryScore(Recipe recipe, User user) {
+    static double calculateDietaryScore(Recipe recipe, User user) {
         if (user == null || user.getDietaryPreferences() == null ||
                 user.getDietaryPreferences().isEmpty()) {
             return 15.0; // Neutral score if no dietary preference
         }
 
         String dietPref = user.getDietaryPreferences().toLowerCase();
-        String category = recipe.getCategory() != null ? recipe.getCategory().toLowerCase() : "";
+        int dietTag = DietaryTags.forPreference(dietPref);
 
-        // Perfect match
-        if (category.contains(dietPref) || category.equals(dietPref)) {
-            return 30.0;
+        // Preferences that are not a known diet can only match the category text
+        if (dietTag == 0) {
+            String category = recipe.getCategory() != null ? recipe.getCategory().toLowerCase() : "";
+            return category.contains(dietPref) ? 30.0 : 5.0;
         }
 
-        // Vegetarian/Vegan logic
-        if (dietPref.equals("vegetarian")) {
-            if (!category.contains("meat") && !category.contains("fish") &&
-                    !category.contains("chicken") && !category.contains("beef") &&
-                    !category.contains("pork")) {
-                return 25.0;
-            }
-        }
+        int tags = recipe.getDietaryTags();
 
-        if (dietPref.equals("vegan")) {
-            if (!category.contains("meat") && !category.contains("fish") &&
-                    !category.contains("dairy") && !category.contains("egg") &&
-                    !category.contains("chicken") && !category.contains("beef")) {
-                return 25.0;
-            }
-        }
-
-        // Gluten-free logic
-        if (dietPref.equals("gluten-free")) {
-            if (!category.contains("bread") && !category.contains("pasta") &&
-                    !category.contains("wheat")) {
-                return 25.0;
-            }
+        // Perfect match: the category names the diet
+        if ((tags & dietTag) != 0) {
+            return 30.0;
         }
 
-        // Keto logic
-        if (dietPref.equals("keto")) {
-            if (!category.contains("rice") && !category.contains("pasta") &&
-                    !category.contains("bread") && !category.contains("potato")) {
-                return 25.0;
-            }
+        // Suits the diet: the category mentions nothing the diet rules out
+        if ((tags & DietaryTags.excludedBy(dietTag)) == 0) {
+            return 25.0;
         }
 
         // No match
@@ -191,7 +194,7 @@ public class RecipeRecommendationService {
     /**
      * Calculate how well the recipe fits nutrition goals
      */
-    private static double calculateNutritionScore(Recipe recipe, User user) {
+    static double calculateNutritionScore(Recipe recipe, User user) {
         if (user == null) return 10.0;
 
         int recipeCalories = recipe.getCalories();
@@ -226,26 +229,80 @@ public class RecipeRecommendationService {
     public static List<String> getMissingIngredients(Recipe recipe, List<PantryItem> pantryItems) {
         List<String> missing = new ArrayList<>();
 
-        Set<String> pantryIngredients = pantryItems.stream()
-                .map(item -> item.getIngredientName().toLowerCase())
-                .collect(Collectors.toSet());
+        PantryMatcher pantryMatcher = PantryMatcher.forPantry(pantryItems);
 
-        try {
-            JSONArray ingredients = new JSONArray(recipe.getIngredients());
+        ParsedIngredients ingredients = RecipeIngredientCache.get(recipe);
+        for (int i = 0; i < ingredients.size(); i++) {
+            if (!pantryMatcher.matches(ingredients.getNormalizedName(i))) {
+                missing.add(ingredients.getName(i));
+            }
+        }
 
-            for (int i = 0; i < ingredients.length(); i++) {
-                JSONObject ingredient = ingredients.getJSONObject(i);
-                String name = ingredient.optString("name", "");
+        return missing;
+    }
 
-                if (!containsIngredient(pantryIngredients, name.toLowerCase())) {
-                    missing.add(name);
+    /**
+     * Get missing ingredients for the recipes with the given ids (e.g. a meal
+     * plan's recipe ids) plus one deduplicated shopping list. Ids that are not
+     * in allRecipes are skipped.
+     */
+    public static ShoppingList getShoppingList(
+            List<Recipe> allRecipes,
+            Collection<String> recipeIds,
+            List<PantryItem> pantryItems) {
+
+        Map<String, Recipe> recipesById = new HashMap<>();
+        for (Recipe recipe : allRecipes) {
+            recipesById.put(String.valueOf(recipe.getId()), recipe);
+        }
+
+        List<Recipe> recipes = new ArrayList<>();
+        for (String recipeId : recipeIds) {
+            Recipe recipe = recipesById.get(recipeId);
+            if (recipe != null) {
+                recipes.add(recipe);
+            }
+        }
+        return getShoppingList(recipes, pantryItems);
+    }
+
+    /**
+     * Get missing ingredients for many recipes at once. The pantry matcher is
+     * built once and each distinct ingredient is checked against it only once.
+     */
+    public static ShoppingList getShoppingList(List<Recipe> recipes, List<PantryItem> pantryItems) {
+        PantryMatcher pantryMatcher = PantryMatcher.forPantry(pantryItems);
+
+        // Match results by IngredientDictionary id
+        BitSet checked = new BitSet();
+        BitSet available = new BitSet();
+
+        Map<Integer, List<String>> missingByRecipe = new LinkedHashMap<>();
+        Map<String, String> shoppingItems = new LinkedHashMap<>();
+        for (Recipe recipe : recipes) {
+            if (missingByRecipe.containsKey(recipe.getId())) {
+                continue;
+            }
+
+            List<String> missing = new ArrayList<>();
+            ParsedIngredients ingredients = RecipeIngredientCache.get(recipe);
+            for (int i = 0; i < ingredients.size(); i++) {
+                int ingredientId = ingredients.getIngredientId(i);
+                if (!checked.get(ingredientId)) {
+                    checked.set(ingredientId);
+                    if (pantryMatcher.matches(ingredients.getNormalizedName(i))) {
+                        available.set(ingredientId);
+                    }
+                }
+                if (!available.get(ingredientId)) {
+                    missing.add(ingredients.getName(i));
+                    shoppingItems.putIfAbsent(ingredients.getNormalizedName(i), ingredients.getName(i));
                 }
             }
-        } catch (JSONException e) {
-            // Return empty list on error
+            missingByRecipe.put(recipe.getId(), missing);
         }
 
-        return missing;
+        return new ShoppingList(missingByRecipe, new ArrayList<>(shoppingItems.values()));
     }
 
     /**
@@ -254,24 +311,75 @@ public class RecipeRecommendationService {
     public static List<Recipe> getRecipesYouCanMake(
             List<Recipe> allRecipes,
             List<PantryItem> pantryItems) {
+        return getRecipesYouCanMake(allRecipes, pantryItems, false);
+    }
+
+    /**
+     * Filter recipes that can be made, optionally checking candidates in parallel.
+     * Results keep catalog order either way.
+     */
+    public static List<Recipe> getRecipesYouCanMake(
+            List<Recipe> allRecipes,
+            List<PantryItem> pantryItems,
+            boolean parallel) {
 
         Set<String> pantryIngredients = pantryItems.stream()
                 .map(item -> item.getIngredientName().toLowerCase())
                 .collect(Collectors.toSet());
 
-        List<Recipe> canMake = new ArrayList<>();
+        IngredientIndex index = IngredientIndex.forCatalog(allRecipes);
+        BitSet pantryKeys = index.matchingKeys(pantryIngredients);
 
-        for (Recipe recipe : allRecipes) {
-            double matchScore = calculatePantryMatchScore(recipe, pantryIngredients);
-            // If 90% or more ingredients are available (45/50 points)
-            if (matchScore >= 45.0) {
-                canMake.add(recipe);
-            }
+        // If 90% or more ingredients are available (45/50 points)
+        if (parallel) {
+            return ParallelRecipeScorer.filterCanMake(allRecipes, index.thresholdScan(pantryKeys, 45.0));
         }
 
+        List<Recipe> canMake = new ArrayList<>();
+        for (int position : index.matchAtLeast(pantryKeys, 45.0)) {
+            canMake.add(allRecipes.get(position));
+        }
         return canMake;
     }
 
+    /**
+     * Add the recipes at catalog positions [from, to) that can be made, in order
+     */
+    static void collectCanMake(List<Recipe> allRecipes, IngredientIndex.ThresholdScan canMakeScan,
+                               int from, int to, List<Recipe> canMake) {
+        for (int position : canMakeScan.collect(from, to)) {
+            canMake.add(allRecipes.get(position));
+        }
+    }
+
+    /**
+     * Missing ingredients for a set of recipes
+     */
+    public static class ShoppingList {
+        private final Map<Integer, List<String>> missingByRecipe;
+        private final List<String> items;
+
+        ShoppingList(Map<Integer, List<String>> missingByRecipe, List<String> items) {
+            this.missingByRecipe = missingByRecipe;
+            this.items = items;
+        }
+
+        /**
+         * Missing ingredients per recipe id, in the order the recipes were given
+         */
+        public Map<Integer, List<String>> getMissingByRecipe() { return missingByRecipe; }
+
+        public List<String> getMissingIngredients(int recipeId) {
+            List<String> missing = missingByRecipe.get(recipeId);
+            return missing != null ? missing : new ArrayList<>();
+        }
+
+        /**
+         * Every missing ingredient once (ignoring case), in first-seen order
+         */
+        public List<String> getItems() { return items; }
+    }
+
     /**
      * Recommendation result wrapper
      */
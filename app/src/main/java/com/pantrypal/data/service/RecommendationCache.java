@@ -0,0 +1,211 @@
+package com.pantrypal.data.service;
+
+import com.pantrypal.data.model.PantryItem;
+import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.User;
+import com.pantrypal.data.service.RecipeRecommendationService.RecipeRecommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of ranked recommendations, shared across screens so that
+ * rotations and tab switches reuse the last ranking instead of rescoring.
+ *
+ * Entries are keyed by a copy of the recipe fields scoring reads (id,
+ * category, dietary tags, calories, ingredients), the pantry contents, the
+ * user fields scoring reads (dietary preference, remaining calories) and
+ * maxResults. Keys compare those values themselves, not a hash of them, so a
+ * changed input never hits a stale entry; invalidate() drops entries early
+ * when an input is known to have changed.
+ *
+ * Home's RecommendationViewModel is the only caller that ranks recipes.
+ * Browse pages recipes by the stored matchPercentage column, and the
+ * expiring-items card only lists pantry items. Route any future ranking for
+ * them through recommend() so they share these entries.
+ */
+public class RecommendationCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 16;
+
+    private static final RecommendationCache INSTANCE = new RecommendationCache(DEFAULT_MAX_ENTRIES);
+
+    private final Map<Key, Entry> entries;
+
+    public RecommendationCache(int maxEntries) {
+        this.entries = new LinkedHashMap<Key, Entry>(maxEntries, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static RecommendationCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get cached recommendations, or score with RecipeRecommendationService on a miss
+     */
+    public List<RecipeRecommendation> recommend(List<Recipe> allRecipes, List<PantryItem> pantryItems,
+                                                User user, int maxResults) {
+        return getOrCompute(allRecipes, pantryItems, user, maxResults,
+                () -> RecipeRecommendationService.recommendRecipes(allRecipes, pantryItems, user, maxResults));
+    }
+
+    /**
+     * Get cached recommendations, or run compute on a miss and cache its result.
+     * compute must rank recipes taken from allRecipes.
+     */
+    public List<RecipeRecommendation> getOrCompute(List<Recipe> allRecipes, List<PantryItem> pantryItems,
+                                                   User user, int maxResults,
+                                                   Supplier<List<RecipeRecommendation>> compute) {
+        Key key = new Key(allRecipes, pantryItems, user, maxResults);
+        Entry cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            return cached.toRecommendations(allRecipes);
+        }
+
+        List<RecipeRecommendation> recommendations = compute.get();
+        Entry entry = Entry.of(allRecipes, recommendations);
+        if (entry != null) {
+            synchronized (this) {
+                entries.put(key, entry);
+            }
+        }
+        return recommendations;
+    }
+
+    /**
+     * Drop every entry, e.g. after recipes were written or the user signed out
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Key {
+        // The fields scoring reads, position by position (see sameScoringInputs)
+        private final int[] recipeIds;
+        private final int[] calories;
+        private final int[] dietaryTags;
+        private final String[] categories;
+        private final String[] ingredients;
+        private final Set<String> pantryIngredients;
+        private final boolean hasUser;
+        private final String dietaryPreference;
+        private final int remainingCalories;
+        private final int maxResults;
+        private final int hashCode;
+
+        Key(List<Recipe> allRecipes, List<PantryItem> pantryItems, User user, int maxResults) {
+            int size = allRecipes.size();
+            this.recipeIds = new int[size];
+            this.calories = new int[size];
+            this.dietaryTags = new int[size];
+            this.categories = new String[size];
+            this.ingredients = new String[size];
+            for (int position = 0; position < size; position++) {
+                Recipe recipe = allRecipes.get(position);
+                recipeIds[position] = recipe.getId();
+                calories[position] = recipe.getCalories();
+                dietaryTags[position] = recipe.getDietaryTags();
+                categories[position] = recipe.getCategory();
+                ingredients[position] = recipe.getIngredients();
+            }
+            this.pantryIngredients = new HashSet<>();
+            for (PantryItem item : pantryItems) {
+                pantryIngredients.add(item.getIngredientName().toLowerCase());
+            }
+            this.hasUser = user != null;
+            String preference = user != null ? user.getDietaryPreferences() : null;
+            this.dietaryPreference = preference != null ? preference.toLowerCase() : "";
+            // Exact value: the nutrition score has sharp thresholds on the remaining budget
+            this.remainingCalories = user != null ? user.getRemainingCalories() : 0;
+            this.maxResults = maxResults;
+            this.hashCode = Objects.hash(Arrays.hashCode(recipeIds), Arrays.hashCode(calories),
+                    Arrays.hashCode(dietaryTags), Arrays.hashCode(categories), Arrays.hashCode(ingredients),
+                    pantryIngredients, hasUser, dietaryPreference, remainingCalories, maxResults);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hashCode == other.hashCode
+                    && hasUser == other.hasUser
+                    && remainingCalories == other.remainingCalories
+                    && maxResults == other.maxResults
+                    && dietaryPreference.equals(other.dietaryPreference)
+                    && pantryIngredients.equals(other.pantryIngredients)
+                    && Arrays.equals(recipeIds, other.recipeIds)
+                    && Arrays.equals(calories, other.calories)
+                    && Arrays.equals(dietaryTags, other.dietaryTags)
+                    && Arrays.equals(categories, other.categories)
+                    && Arrays.equals(ingredients, other.ingredients);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Ranked catalog positions and scores; recipes are re-read from the current
+     * catalog on a hit so callers never see rows from an older emission
+     */
+    private static final class Entry {
+        private final int[] positions;
+        private final double[] scores;
+
+        private Entry(int[] positions, double[] scores) {
+            this.positions = positions;
+            this.scores = scores;
+        }
+
+        static Entry of(List<Recipe> allRecipes, List<RecipeRecommendation> recommendations) {
+            Map<Recipe, Integer> catalogPositions = new IdentityHashMap<>(allRecipes.size());
+            for (int position = 0; position < allRecipes.size(); position++) {
+                catalogPositions.put(allRecipes.get(position), position);
+            }
+
+            int[] positions = new int[recommendations.size()];
+            double[] scores = new double[recommendations.size()];
+            for (int i = 0; i < recommendations.size(); i++) {
+                Integer position = catalogPositions.get(recommendations.get(i).getRecipe());
+                if (position == null) {
+                    // Not ranked from this catalog; not safe to cache
+                    return null;
+                }
+                positions[i] = position;
+                scores[i] = recommendations.get(i).getScore();
+            }
+            return new Entry(positions, scores);
+        }
+
+        List<RecipeRecommendation> toRecommendations(List<Recipe> allRecipes) {
+            List<RecipeRecommendation> recommendations = new ArrayList<>(positions.length);
+            for (int i = 0; i < positions.length; i++) {
+                recommendations.add(new RecipeRecommendation(allRecipes.get(positions[i]), scores[i]));
+            }
+            return recommendations;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.pantrypal.data.service;
+
+/**
+ * Fixed-capacity min-heap keeping the K best (score, catalog position) pairs.
+ * Higher scores rank first; equal scores rank by lower catalog position, which
+ * matches a stable descending sort of the catalog.
+ */
+class TopKSelector {
+    private final int capacity;
+    private final double[] scores;
+    private final int[] positions;
+    private int size;
+
+    TopKSelector(int capacity) {
+        this.capacity = capacity;
+        this.scores = new double[capacity];
+        this.positions = new int[capacity];
+    }
+
+    int size() { return size; }
+
+    /**
+     * Whether a recipe with this score at this position would enter the heap.
+     * Passing an upper bound lets callers skip recipes before scoring them.
+     */
+    boolean admits(double score, int position) {
+        if (capacity == 0) {
+            return false;
+        }
+        if (size < capacity) {
+            return true;
+        }
+        return ranksAbove(score, position, scores[0], positions[0]);
+    }
+
+    void offer(double score, int position) {
+        if (size < capacity) {
+            scores[size] = score;
+            positions[size] = position;
+            siftUp(size++);
+        } else if (capacity > 0 && ranksAbove(score, position, scores[0], positions[0])) {
+            scores[0] = score;
+            positions[0] = position;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Offer every entry of another selector, e.g. one partition's results
+     */
+    void addAll(TopKSelector other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.scores[i], other.positions[i]);
+        }
+    }
+
+    /**
+     * Empty the heap into best-first order. Returns the number of entries written.
+     */
+    int drainBestFirst(double[] scoresOut, int[] positionsOut) {
+        int count = size;
+        while (size > 0) {
+            int last = --size;
+            scoresOut[last] = scores[0];
+            positionsOut[last] = positions[0];
+            scores[0] = scores[last];
+            positions[0] = positions[last];
+            siftDown(0);
+        }
+        return count;
+    }
+
+    private static boolean ranksAbove(double score, int position, double otherScore, int otherPosition) {
+        return score > otherScore || (score == otherScore && position < otherPosition);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(scores[parent], positions[parent], scores[index], positions[index])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && ranksAbove(scores[worst], positions[worst], scores[right], positions[right])) {
+                worst = right;
+            }
+            if (!ranksAbove(scores[index], positions[index], scores[worst], positions[worst])) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int position = positions[a];
+        positions[a] = positions[b];
+        positions[b] = position;
+    }
+}
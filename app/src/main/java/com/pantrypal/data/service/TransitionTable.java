@@ -0,0 +1,70 @@
+package com.pantrypal.data.service;
+
+import java.util.Arrays;
+
+/**
+ * Character transitions of a string automaton, stored per state as small
+ * parallel arrays. Ingredient names use a tiny alphabet, so a linear scan
+ * beats hashing and never allocates on lookup.
+ */
+class TransitionTable {
+    static final int NONE = -1;
+
+    private char[][] labels = new char[16][];
+    private int[][] targets = new int[16][];
+    private int[] degrees = new int[16];
+    private int stateCount;
+
+    int addState() {
+        if (stateCount == degrees.length) {
+            labels = Arrays.copyOf(labels, stateCount * 2);
+            targets = Arrays.copyOf(targets, stateCount * 2);
+            degrees = Arrays.copyOf(degrees, stateCount * 2);
+        }
+        labels[stateCount] = new char[2];
+        targets[stateCount] = new int[2];
+        return stateCount++;
+    }
+
+    int size() { return stateCount; }
+
+    int get(int state, char c) {
+        char[] stateLabels = labels[state];
+        for (int i = 0; i < degrees[state]; i++) {
+            if (stateLabels[i] == c) {
+                return targets[state][i];
+            }
+        }
+        return NONE;
+    }
+
+    void set(int state, char c, int target) {
+        char[] stateLabels = labels[state];
+        int degree = degrees[state];
+        for (int i = 0; i < degree; i++) {
+            if (stateLabels[i] == c) {
+                targets[state][i] = target;
+                return;
+            }
+        }
+        if (degree == stateLabels.length) {
+            labels[state] = Arrays.copyOf(stateLabels, degree * 2);
+            targets[state] = Arrays.copyOf(targets[state], degree * 2);
+        }
+        labels[state][degree] = c;
+        targets[state][degree] = target;
+        degrees[state] = degree + 1;
+    }
+
+    void copy(int from, int to) {
+        labels[to] = labels[from].clone();
+        targets[to] = targets[from].clone();
+        degrees[to] = degrees[from];
+    }
+
+    int degree(int state) { return degrees[state]; }
+
+    char labelAt(int state, int index) { return labels[state][index]; }
+
+    int targetAt(int state, int index) { return targets[state][index]; }
+}
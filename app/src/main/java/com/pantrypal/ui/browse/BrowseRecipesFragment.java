@@ -13,15 +13,13 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.chip.Chip;
 import com.pantrypal.R;
 import com.pantrypal.databinding.FragmentBrowseRecipesBinding;
-import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.RecipeSummary;
 import com.pantrypal.data.model.User;
 import com.pantrypal.ui.viewmodel.RecipeViewModel;
 import com.pantrypal.ui.viewmodel.UserViewModel;
+import com.pantrypal.util.LoadMoreScrollListener;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class BrowseRecipesFragment extends Fragment {
     private FragmentBrowseRecipesBinding binding;
@@ -70,65 +68,41 @@ public class BrowseRecipesFragment extends Fragment {
                 } else {
                     binding.myDietFilterChip.setVisibility(View.GONE);
                 }
+                applyFilters();
             }
         });
     }
 
     private void setupRecipes() {
-        recipeViewModel.getTopRecipes(50).observe(getViewLifecycleOwner(), recipes -> {
+        // Load recipes a page at a time as the user scrolls
+        recipesRecyclerView.addOnScrollListener(
+                new LoadMoreScrollListener(recipeViewModel::loadMoreTopRecipes,
+                        recipeViewModel::setTopRecipesAnchor));
+        recipeViewModel.getPagedTopRecipes().observe(getViewLifecycleOwner(), recipes -> {
             if (recipes != null) {
-                List<Recipe> filteredRecipes = filterRecipes(recipes);
-                updateRecipesDisplay(filteredRecipes);
+                updateRecipesDisplay(recipes);
             }
         });
     }
 
-    private List<Recipe> filterRecipes(List<Recipe> allRecipes) {
-        List<Recipe> filtered = new ArrayList<>(allRecipes);
-
-        // Filter by category
-        if (!selectedCategory.equals("All")) {
-            filtered = filtered.stream()
-                    .filter(recipe -> recipe.getCategory() != null &&
-                            recipe.getCategory().equalsIgnoreCase(selectedCategory))
-                    .collect(Collectors.toList());
-        }
+    /**
+     * Filters run in the page query, so every loaded page is full of matches
+     */
+    private void applyFilters() {
+        String category = selectedCategory.equals("All") ? null : selectedCategory;
 
         // Filter by dietary preference if enabled
+        String dietaryPreference = null;
         if (isDietFilterEnabled && currentUser != null &&
                 currentUser.getDietaryPreferences() != null &&
                 !currentUser.getDietaryPreferences().isEmpty()) {
-
-            String dietPref = currentUser.getDietaryPreferences();
-            filtered = filtered.stream()
-                    .filter(recipe -> matchesDietaryPreference(recipe, dietPref))
-                    .collect(Collectors.toList());
-
-            // Sort matching recipes higher
-            filtered = filtered.stream()
-                    .sorted(Comparator.comparingInt((Recipe r) ->
-                            matchesDietaryPreference(r, dietPref) ? 0 : 1))
-                    .collect(Collectors.toList());
+            dietaryPreference = currentUser.getDietaryPreferences();
         }
 
-        return filtered;
-    }
-
-    private boolean matchesDietaryPreference(Recipe recipe, String dietaryPreference) {
-        if (recipe.getCategory() == null) return false;
-
-        String category = recipe.getCategory().toLowerCase();
-        String dietPref = dietaryPreference.toLowerCase();
-
-        // Check if recipe category matches or contains dietary preference
-        return category.contains(dietPref) ||
-               category.equals(dietPref) ||
-               (dietPref.equals("vegetarian") && !category.contains("meat") && !category.contains("fish")) ||
-               (dietPref.equals("vegan") && !category.contains("meat") && !category.contains("dairy") &&
-                !category.contains("egg") && !category.contains("fish"));
+        recipeViewModel.setTopRecipesFilter(category, dietaryPreference);
     }
 
-    private void updateRecipesDisplay(List<Recipe> recipes) {
+    private void updateRecipesDisplay(List<RecipeSummary> recipes) {
         // Update the RecyclerView adapter with filtered recipes
         // TODO: Create and update adapter when RecipeAdapter is implemented
 
@@ -146,7 +120,7 @@ public class BrowseRecipesFragment extends Fragment {
         // Dietary preference filter chip
         binding.myDietFilterChip.setOnCheckedChangeListener((buttonView, isChecked) -> {
             isDietFilterEnabled = isChecked;
-            setupRecipes(); // Reload recipes with filter
+            applyFilters(); // Reload the recipes with the new filter
         });
 
         // Category filter chips
@@ -154,7 +128,7 @@ public class BrowseRecipesFragment extends Fragment {
             Chip chip = (Chip) v;
             if (chip.isChecked()) {
                 selectedCategory = chip.getText().toString();
-                setupRecipes(); // Reload recipes with filter
+                applyFilters(); // Reload the recipes with the new filter
             }
         };
 
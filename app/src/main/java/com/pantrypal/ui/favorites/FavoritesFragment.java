@@ -13,6 +13,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.pantrypal.databinding.FragmentFavoritesBinding;
 // import com.pantrypal.ui.adapter.RecipeGridAdapter; // TODO: Create adapter
 import com.pantrypal.ui.viewmodel.RecipeViewModel;
+import com.pantrypal.util.LoadMoreScrollListener;
 
 public class FavoritesFragment extends Fragment {
     private FragmentFavoritesBinding binding;
@@ -47,7 +48,11 @@ public class FavoritesFragment extends Fragment {
     }
 
     private void setupFavorites() {
-        recipeViewModel.getFavoriteRecipes().observe(getViewLifecycleOwner(), recipes -> {
+        // Load favorites a page at a time as the user scrolls
+        favoritesRecyclerView.addOnScrollListener(
+                new LoadMoreScrollListener(recipeViewModel::loadMoreFavoriteRecipes,
+                        recipeViewModel::setFavoriteRecipesAnchor));
+        recipeViewModel.getPagedFavoriteRecipes().observe(getViewLifecycleOwner(), recipes -> {
             if (recipes == null || recipes.isEmpty()) {
                 binding.emptyState.setVisibility(View.VISIBLE);
                 favoritesRecyclerView.setVisibility(View.GONE);
@@ -17,13 +17,14 @@ import androidx.recyclerview.widget.RecyclerView.ViewHolder;
 
 import com.google.android.material.card.MaterialCardView;
 import com.pantrypal.databinding.FragmentHomeBinding;
-import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.RecipeSummary;
 import com.pantrypal.data.model.User;
 import com.pantrypal.data.model.PantryItem;
 import com.pantrypal.data.service.RecipeRecommendationService;
 import com.pantrypal.ui.viewmodel.RecipeViewModel;
 import com.pantrypal.ui.viewmodel.UserViewModel;
 import com.pantrypal.ui.viewmodel.PantryItemViewModel;
+import com.pantrypal.ui.viewmodel.RecommendationViewModel;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,6 +37,7 @@ public class HomeFragment extends Fragment {
     private PantryItemViewModel pantryItemViewModel;
     private RecipeGridAdapter recipeAdapter;
     private User currentUser;
+    private RecommendationViewModel recommendationViewModel;
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
@@ -51,6 +53,7 @@ public class HomeFragment extends Fragment {
         recipeViewModel = new ViewModelProvider(this).get(RecipeViewModel.class);
         userViewModel = new ViewModelProvider(this).get(UserViewModel.class);
         pantryItemViewModel = new ViewModelProvider(this).get(PantryItemViewModel.class);
+        recommendationViewModel = new ViewModelProvider(this).get(RecommendationViewModel.class);
 
         // Setup user information and personalized content
         setupUserInfo();
@@ -87,9 +90,6 @@ public class HomeFragment extends Fragment {
                     String dietInfo = " (" + user.getDietaryPreferences() + ")";
                     // You could add a TextView to show dietary preference, or update existing elements
                 }
-
-                // Reload recipes with dietary filter if needed
-                setupRecipeSuggestions();
             }
         });
     }
@@ -183,74 +183,41 @@ public class HomeFragment extends Fragment {
             binding.popularRecipesRecycler.setAdapter(recipeAdapter);
         }
 
-        // Use intelligent recommendation algorithm
-        recipeViewModel.getTopRecipes(30).observe(getViewLifecycleOwner(), allRecipes -> {
-            if (allRecipes != null && !allRecipes.isEmpty()) {
-                pantryItemViewModel.getAllPantryItems().observe(getViewLifecycleOwner(), pantryItems -> {
-                    if (currentUser != null && pantryItems != null) {
-                        // Use RecipeRecommendationService for intelligent recommendations
-                        List<RecipeRecommendationService.RecipeRecommendation> recommendations =
-                                RecipeRecommendationService.recommendRecipes(
-                                        allRecipes,
-                                        pantryItems,
-                                        currentUser,
-                                        10
-                                );
-
-                        // Extract recipes from recommendations
-                        List<Recipe> recommendedRecipes = recommendations.stream()
-                                .map(RecipeRecommendationService.RecipeRecommendation::getRecipe)
-                                .collect(Collectors.toList());
-
-                        recipeAdapter.setRecipes(recommendedRecipes);
-                    } else {
-                        // Fallback: show top recipes
-                        recipeAdapter.setRecipes(allRecipes.stream()
-                                .limit(10)
-                                .collect(Collectors.toList()));
-                    }
-                });
+        // Recommendations are computed off the main thread and recomputed when
+        // recipes, pantry or user change
+        recommendationViewModel.getRecommendedRecipes().observe(getViewLifecycleOwner(), recommendedRecipes -> {
+            if (recommendedRecipes != null) {
+                recipeAdapter.setRecipes(recommendedRecipes.stream()
+                        .map(RecipeSummary::of)
+                        .collect(Collectors.toList()));
             }
         });
-    }
-
-    private void loadAndFilterRecipes(String dietaryPreference) {
-        recipeViewModel.getTopRecipes(20).observe(getViewLifecycleOwner(), recipes -> {
-            if (recipes != null && !recipes.isEmpty()) {
-                // Filter recipes that match dietary preference
-                List<Recipe> filteredRecipes = recipes.stream()
-                    .filter(recipe -> {
-                        String category = recipe.getCategory();
-                        return category != null &&
-                               (category.equalsIgnoreCase(dietaryPreference) ||
-                                category.toLowerCase().contains(dietaryPreference.toLowerCase()));
-                    })
-                    .limit(10)
-                    .collect(Collectors.toList());
-
-                if (!filteredRecipes.isEmpty()) {
-                    recipeAdapter.setRecipes(filteredRecipes);
-                } else {
-                    // If no matches, show top recipes
-                    recipeAdapter.setRecipes(recipes.stream().limit(10).collect(Collectors.toList()));
-                }
+        recommendationViewModel.getShoppingList().observe(getViewLifecycleOwner(), shoppingList -> {
+            if (shoppingList != null) {
+                recipeAdapter.setShoppingList(shoppingList);
             }
         });
     }
 
     // Simple RecyclerView adapter for recipe grid
     public static class RecipeGridAdapter extends Adapter<RecipeGridAdapter.RecipeViewHolder> {
-        private List<Recipe> recipes;
+        private List<RecipeSummary> recipes;
+        private RecipeRecommendationService.ShoppingList shoppingList;
 
-        public RecipeGridAdapter(List<Recipe> recipes) {
+        public RecipeGridAdapter(List<RecipeSummary> recipes) {
             this.recipes = recipes;
         }
 
-        public void setRecipes(List<Recipe> recipes) {
+        public void setRecipes(List<RecipeSummary> recipes) {
             this.recipes = recipes;
             notifyDataSetChanged();
         }
 
+        public void setShoppingList(RecipeRecommendationService.ShoppingList shoppingList) {
+            this.shoppingList = shoppingList;
+            notifyDataSetChanged();
+        }
+
         @NonNull
         @Override
         public RecipeViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -277,8 +244,13 @@ public class HomeFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull RecipeViewHolder holder, int position) {
-            Recipe recipe = recipes.get(position);
-            holder.recipeText.setText(recipe.getName() + "\n" + recipe.getCookingTime() + " min");
+            RecipeSummary recipe = recipes.get(position);
+            String text = recipe.getName() + "\n" + recipe.getCookingTime() + " min";
+            if (shoppingList != null && shoppingList.getMissingByRecipe().containsKey(recipe.getId())) {
+                int missing = shoppingList.getMissingIngredients(recipe.getId()).size();
+                text += missing == 0 ? "\nYou have everything" : "\nMissing " + missing + " ingredients";
+            }
+            holder.recipeText.setText(text);
         }
 
         @Override
@@ -16,6 +16,7 @@ import com.pantrypal.data.model.User;
 // import com.pantrypal.ui.adapter.PantryItemAdapter; // TODO: Create adapter
 import com.pantrypal.ui.viewmodel.PantryItemViewModel;
 import com.pantrypal.ui.viewmodel.UserViewModel;
+import com.pantrypal.util.LoadMoreScrollListener;
 import com.pantrypal.util.SharedPreferencesManager;
 
 import java.util.HashMap;
@@ -186,7 +187,11 @@ public class PantryFragment extends Fragment {
     }
 
     private void setupPantryItems() {
-        pantryItemViewModel.getAllPantryItems().observe(getViewLifecycleOwner(), items -> {
+        // Load the list a page at a time as the user scrolls
+        pantryRecyclerView.addOnScrollListener(
+                new LoadMoreScrollListener(pantryItemViewModel::loadMorePantryItems,
+                        pantryItemViewModel::setPantryItemsAnchor));
+        pantryItemViewModel.getPagedPantryItems().observe(getViewLifecycleOwner(), items -> {
             if (items == null || items.isEmpty()) {
                 binding.emptyState.setVisibility(View.VISIBLE);
                 pantryRecyclerView.setVisibility(View.GONE);
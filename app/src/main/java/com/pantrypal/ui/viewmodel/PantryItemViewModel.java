@@ -9,12 +9,16 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.pantrypal.data.model.PantryItem;
 import com.pantrypal.data.repository.FirebasePantryRepository;
+import com.pantrypal.data.repository.KeysetPager;
 
 import java.util.List;
 
 public class PantryItemViewModel extends AndroidViewModel {
+    private static final int PAGE_SIZE = 30;
+
     private FirebasePantryRepository repository;
     private String currentUserId;
+    private KeysetPager<PantryItem> pantryPager;
 
     public PantryItemViewModel(Application application) {
         super(application);
@@ -34,6 +38,50 @@ public class PantryItemViewModel extends AndroidViewModel {
         return repository.getAllPantryItems(currentUserId);
     }
 
+    /**
+     * Pantry items sorted by name, one page at a time; call loadMorePantryItems()
+     * as the list nears its end
+     */
+    public LiveData<List<PantryItem>> getPagedPantryItems() {
+        if (currentUserId == null) {
+            return null;
+        }
+        if (pantryPager == null) {
+            String userId = currentUserId;
+            pantryPager = new KeysetPager<>(PAGE_SIZE, (after, limit, callback) ->
+                    repository.getPantryItemsPage(userId, after, limit,
+                            new FirebasePantryRepository.RepositoryCallback<List<PantryItem>>() {
+                                @Override
+                                public void onSuccess(List<PantryItem> data) {
+                                    callback.onPage(data);
+                                }
+
+                                @Override
+                                public void onFailure(String error) {
+                                    callback.onPage(null);
+                                }
+                            }));
+            pantryPager.loadNextPage();
+        }
+        return pantryPager.getItems();
+    }
+
+    public void loadMorePantryItems() {
+        if (pantryPager != null) {
+            pantryPager.loadNextPage();
+        }
+    }
+
+    /**
+     * First visible position in the pantry list, where pages are reloaded
+     * after a write
+     */
+    public void setPantryItemsAnchor(int position) {
+        if (pantryPager != null) {
+            pantryPager.setAnchor(position);
+        }
+    }
+
     public LiveData<List<PantryItem>> getExpiringItems() {
         if (currentUserId == null) {
             return null;
@@ -53,7 +101,7 @@ public class PantryItemViewModel extends AndroidViewModel {
             callback.onFailure("User not authenticated");
             return;
         }
-        repository.addPantryItem(currentUserId, item, callback);
+        repository.addPantryItem(currentUserId, item, refreshPagesOnSuccess(callback));
     }
 
     public void updatePantryItem(PantryItem item, FirebasePantryRepository.RepositoryCallback<Void> callback) {
@@ -61,7 +109,7 @@ public class PantryItemViewModel extends AndroidViewModel {
             callback.onFailure("User not authenticated");
             return;
         }
-        repository.updatePantryItem(currentUserId, item, callback);
+        repository.updatePantryItem(currentUserId, item, refreshPagesOnSuccess(callback));
     }
 
     public void deletePantryItem(String itemId, FirebasePantryRepository.RepositoryCallback<Void> callback) {
@@ -69,7 +117,7 @@ public class PantryItemViewModel extends AndroidViewModel {
             callback.onFailure("User not authenticated");
             return;
         }
-        repository.deletePantryItem(currentUserId, itemId, callback);
+        repository.deletePantryItem(currentUserId, itemId, refreshPagesOnSuccess(callback));
     }
 
     public void getPantryItemById(String itemId, FirebasePantryRepository.RepositoryCallback<PantryItem> callback) {
@@ -87,4 +135,33 @@ public class PantryItemViewModel extends AndroidViewModel {
         }
         repository.searchByName(currentUserId, searchQuery, callback);
     }
-}
\ No newline at end of file
+
+    /**
+     * Reload the pages on screen after a write, then report to the caller
+     */
+    private <T> FirebasePantryRepository.RepositoryCallback<T> refreshPagesOnSuccess(
+            FirebasePantryRepository.RepositoryCallback<T> callback) {
+        return new FirebasePantryRepository.RepositoryCallback<T>() {
+            @Override
+            public void onSuccess(T data) {
+                if (pantryPager != null) {
+                    pantryPager.refresh();
+                }
+                callback.onSuccess(data);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                callback.onFailure(error);
+            }
+        };
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (pantryPager != null) {
+            pantryPager.close();
+        }
+    }
+}
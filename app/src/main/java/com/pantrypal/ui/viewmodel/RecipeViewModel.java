@@ -4,19 +4,31 @@ import android.app.Application;
 
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.RecipeSummary;
 import com.pantrypal.data.repository.FirebaseFavoritesRepository;
+import com.pantrypal.data.repository.KeysetPager;
 import com.pantrypal.data.repository.RecipeRepository;
 
 import java.util.List;
+import java.util.Objects;
 
 public class RecipeViewModel extends AndroidViewModel {
+    private static final int PAGE_SIZE = 30;
+
     private RecipeRepository recipeRepository;
     private FirebaseFavoritesRepository favoritesRepository;
     private String currentUserId;
+    private KeysetPager<RecipeSummary> favoritesPager;
+    private KeysetPager<RecipeSummary> topRecipesPager;
+    // Pages of the current filters; switches pager when they change
+    private final MediatorLiveData<List<RecipeSummary>> topRecipes = new MediatorLiveData<>();
+    private String topRecipesCategory;
+    private String topRecipesDietaryPreference;
 
     public RecipeViewModel(Application application) {
         super(application);
@@ -50,6 +62,87 @@ public class RecipeViewModel extends AndroidViewModel {
         return recipeRepository.getFavoriteRecipes();
     }
 
+    /**
+     * Favorites sorted by name, one page at a time; call loadMoreFavoriteRecipes()
+     * as the list nears its end
+     */
+    public LiveData<List<RecipeSummary>> getPagedFavoriteRecipes() {
+        if (favoritesPager == null) {
+            favoritesPager = recipeRepository.getFavoriteRecipesPager(PAGE_SIZE);
+            favoritesPager.loadNextPage();
+        }
+        return favoritesPager.getItems();
+    }
+
+    public void loadMoreFavoriteRecipes() {
+        if (favoritesPager != null) {
+            favoritesPager.loadNextPage();
+        }
+    }
+
+    /**
+     * First visible position in the favorites list, where pages are reloaded
+     * after a change
+     */
+    public void setFavoriteRecipesAnchor(int position) {
+        if (favoritesPager != null) {
+            favoritesPager.setAnchor(position);
+        }
+    }
+
+    /**
+     * Recipes by matchPercentage that pass the filters set with
+     * setTopRecipesFilter(), one page at a time; call loadMoreTopRecipes()
+     * as the list nears its end
+     */
+    public LiveData<List<RecipeSummary>> getPagedTopRecipes() {
+        if (topRecipesPager == null) {
+            showTopRecipes(topRecipesCategory, topRecipesDietaryPreference);
+        }
+        return topRecipes;
+    }
+
+    /**
+     * Filter the paged top recipes by category and dietary preference, or pass
+     * null for either to skip it. The list starts over when the filters change.
+     */
+    public void setTopRecipesFilter(String category, String dietaryPreference) {
+        if (topRecipesPager != null
+                && Objects.equals(category, topRecipesCategory)
+                && Objects.equals(dietaryPreference, topRecipesDietaryPreference)) {
+            return;
+        }
+        showTopRecipes(category, dietaryPreference);
+    }
+
+    private void showTopRecipes(String category, String dietaryPreference) {
+        if (topRecipesPager != null) {
+            topRecipes.removeSource(topRecipesPager.getItems());
+            topRecipesPager.close();
+        }
+        topRecipesCategory = category;
+        topRecipesDietaryPreference = dietaryPreference;
+        topRecipesPager = recipeRepository.getTopRecipesPager(PAGE_SIZE, category, dietaryPreference);
+        topRecipes.addSource(topRecipesPager.getItems(), topRecipes::setValue);
+        topRecipesPager.loadNextPage();
+    }
+
+    public void loadMoreTopRecipes() {
+        if (topRecipesPager != null) {
+            topRecipesPager.loadNextPage();
+        }
+    }
+
+    /**
+     * First visible position in the top recipes list, where pages are
+     * reloaded after a change
+     */
+    public void setTopRecipesAnchor(int position) {
+        if (topRecipesPager != null) {
+            topRecipesPager.setAnchor(position);
+        }
+    }
+
     public LiveData<List<Recipe>> getRecipesByCategory(String category, int limit) {
         return recipeRepository.getRecipesByCategory(category, limit);
     }
@@ -58,6 +151,13 @@ public class RecipeViewModel extends AndroidViewModel {
         return recipeRepository.getTopRecipes(limit);
     }
 
+    /**
+     * Top recipes with only the columns list screens show
+     */
+    public LiveData<List<RecipeSummary>> getTopRecipeSummaries(int limit) {
+        return recipeRepository.getTopRecipeSummaries(limit);
+    }
+
     public LiveData<List<Recipe>> searchRecipes(String query) {
         return recipeRepository.searchRecipes(query);
     }
@@ -124,4 +224,15 @@ public class RecipeViewModel extends AndroidViewModel {
         }
         favoritesRepository.getFavoriteCount(currentUserId, callback);
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (favoritesPager != null) {
+            favoritesPager.close();
+        }
+        if (topRecipesPager != null) {
+            topRecipesPager.close();
+        }
+    }
+}
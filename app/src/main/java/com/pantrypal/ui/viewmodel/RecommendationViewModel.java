@@ -0,0 +1,217 @@
+package com.pantrypal.ui.viewmodel;
+
+import android.app.Application;
+
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.pantrypal.data.model.PantryItem;
+import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.RecipeMatch;
+import com.pantrypal.data.model.User;
+import com.pantrypal.data.repository.FirebaseUserRepository;
+import com.pantrypal.data.repository.HybridPantryRepository;
+import com.pantrypal.data.repository.RecipeRepository;
+import com.pantrypal.data.service.IncrementalRecommendationEngine;
+import com.pantrypal.data.service.IngredientIndex;
+import com.pantrypal.data.service.RecipeRecommendationService;
+import com.pantrypal.data.service.RecommendationCache;
+import com.pantrypal.util.AppExecutors;
+import com.pantrypal.util.CoalescingExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Recommended recipes for the Home screen.
+ *
+ * Combines the recipe, pantry and user sources once and recomputes on the
+ * shared compute executor whenever any of them emits. Candidate recipes are
+ * the ones the database ranks best by pantry coverage across the whole
+ * catalog, topped up with the best recipes by matchPercentage. Bursts of
+ * emissions are debounced, a newer emission supersedes a pending or running
+ * computation, and only the latest result is posted. At most one
+ * recomputation waits in the compute queue at a time.
+ *
+ * Coverage is counted in SQL against the user's pantry_items rows under
+ * PantryMatcher's rule, and Room re-runs the query when the pantry or the
+ * recipes change. The catalog handed to the engine is kept while its scoring
+ * inputs are unchanged, so the ingredient index and the engine's state carry
+ * over between emissions.
+ */
+public class RecommendationViewModel extends AndroidViewModel {
+    private static final int CATALOG_SIZE = 30;
+    private static final int MAX_RECOMMENDATIONS = 10;
+    private static final long DEBOUNCE_MS = 100;
+
+    private final MediatorLiveData<List<Recipe>> recommendedRecipes = new MediatorLiveData<>();
+    private final MutableLiveData<RecipeRecommendationService.ShoppingList> shoppingList = new MutableLiveData<>();
+    private final IncrementalRecommendationEngine recommendationEngine = new IncrementalRecommendationEngine();
+    private final AppExecutors executors = AppExecutors.getInstance();
+    // Superseded runs are replaced while still queued rather than piling up
+    private final CoalescingExecutor recomputeRuns = new CoalescingExecutor(executors.compute());
+
+    // Latest inputs, written on the main thread
+    private List<Recipe> topRecipes = Collections.emptyList();
+    private List<Recipe> pantryMatches = Collections.emptyList();
+    private List<PantryItem> pantryItems;
+    private User currentUser;
+
+    // The catalog scored, frozen so the engine checks it in constant time, and
+    // replaced only when a field scoring reads changes
+    private List<Recipe> catalog;
+
+    private Runnable pendingRun;
+    // Incremented on every emission; a run only posts if it is still the latest
+    private volatile int generation;
+
+    public RecommendationViewModel(Application application) {
+        super(application);
+        RecipeRepository recipeRepository = new RecipeRepository(application);
+
+        recommendedRecipes.addSource(recipeRepository.getTopRecipes(CATALOG_SIZE), recipes -> {
+            topRecipes = recipes;
+            scheduleRecompute();
+        });
+
+        // Get current user ID from FirebaseAuth
+        FirebaseUser firebaseUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (firebaseUser != null) {
+            String currentUserId = firebaseUser.getUid();
+            recommendedRecipes.addSource(recipeRepository.getBestPantryMatches(currentUserId, CATALOG_SIZE), matches -> {
+                pantryMatches = matches.stream()
+                        .map(RecipeMatch::getRecipe)
+                        .collect(Collectors.toList());
+                scheduleRecompute();
+            });
+            recommendedRecipes.addSource(new HybridPantryRepository(application).getAllItemsByUser(currentUserId), items -> {
+                pantryItems = items;
+                scheduleRecompute();
+            });
+            recommendedRecipes.addSource(new FirebaseUserRepository().getUserById(currentUserId), user -> {
+                currentUser = user;
+                scheduleRecompute();
+            });
+        }
+    }
+
+    public LiveData<List<Recipe>> getRecommendedRecipes() {
+        return recommendedRecipes;
+    }
+
+    /**
+     * Ingredients the pantry lacks for the recommended recipes, recomputed
+     * with them. Only emits once the pantry is known.
+     */
+    public LiveData<RecipeRecommendationService.ShoppingList> getShoppingList() {
+        return shoppingList;
+    }
+
+    /**
+     * Best pantry matches first, then top recipes not already listed
+     */
+    private static List<Recipe> mergeCandidates(List<Recipe> pantryMatches, List<Recipe> topRecipes) {
+        List<Recipe> candidates = new ArrayList<>(CATALOG_SIZE);
+        Set<Integer> ids = new HashSet<>();
+        for (List<Recipe> source : Arrays.asList(pantryMatches, topRecipes)) {
+            for (Recipe recipe : source) {
+                if (candidates.size() == CATALOG_SIZE) {
+                    return candidates;
+                }
+                if (ids.add(recipe.getId())) {
+                    candidates.add(recipe);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private void scheduleRecompute() {
+        List<Recipe> recipes = mergeCandidates(pantryMatches, topRecipes);
+        if (recipes.isEmpty()) {
+            return;
+        }
+        if (catalog == null || !RecipeRecommendationService.sameScoringInputs(catalog, recipes)) {
+            catalog = IngredientIndex.frozenCatalog(recipes);
+        }
+        List<Recipe> scored = catalog;
+        List<PantryItem> items = pantryItems;
+        User user = currentUser;
+
+        if (pendingRun != null) {
+            executors.mainThread().cancel(pendingRun);
+        }
+        int runGeneration = ++generation;
+        pendingRun = () -> recomputeRuns.execute(() -> {
+            if (runGeneration != generation) {
+                return;
+            }
+            List<Recipe> recommended = computeRecommendations(scored, recipes, items, user);
+            // One pantry matcher for all recommended recipes
+            RecipeRecommendationService.ShoppingList missing = items != null
+                    ? RecipeRecommendationService.getShoppingList(recommended, items)
+                    : null;
+            if (runGeneration == generation) {
+                if (missing != null) {
+                    shoppingList.postValue(missing);
+                }
+                recommendedRecipes.postValue(recommended);
+            }
+        });
+        executors.mainThread().executeDelayed(pendingRun, DEBOUNCE_MS);
+    }
+
+    /**
+     * Rank the scored catalog, then hand out the matching rows of the latest
+     * emission, which may differ in fields scoring ignores. Synchronized
+     * because compute has several threads and the engine keeps state.
+     */
+    private synchronized List<Recipe> computeRecommendations(List<Recipe> scored, List<Recipe> latest,
+                                                             List<PantryItem> items, User user) {
+        if (user == null || items == null) {
+            // Fallback: show top recipes
+            return latest.stream()
+                    .limit(MAX_RECOMMENDATIONS)
+                    .collect(Collectors.toList());
+        }
+
+        // Reuse the last ranking for these inputs; otherwise apply only what
+        // changed since the last run, then read the ranking
+        List<RecipeRecommendationService.RecipeRecommendation> recommendations =
+                RecommendationCache.getInstance().getOrCompute(scored, items, user, MAX_RECOMMENDATIONS, () -> {
+                    recommendationEngine.setCatalog(scored);
+                    recommendationEngine.setUser(user);
+                    recommendationEngine.setPantry(items);
+                    return recommendationEngine.getTopRecommendations(MAX_RECOMMENDATIONS);
+                });
+
+        Map<Recipe, Integer> positions = new IdentityHashMap<>(scored.size());
+        for (int position = 0; position < scored.size(); position++) {
+            positions.put(scored.get(position), position);
+        }
+        return recommendations.stream()
+                .map(recommendation -> latest.get(positions.get(recommendation.getRecipe())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (pendingRun != null) {
+            executors.mainThread().cancel(pendingRun);
+        }
+        // Drop the result of a run that is still computing
+        generation++;
+    }
+}
@@ -0,0 +1,146 @@
+package com.pantrypal.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+
+/**
+ * App-wide executors, shared by every repository instead of a thread per call
+ *
+ * diskIO runs Room work on one thread, so writes queue up instead of
+ * contending for the SQLite writer lock. Its queue is unbounded, as a write
+ * can neither be dropped nor run out of order. networkIO is for blocking
+ * network calls and compute for CPU-bound work such as recommendations; both
+ * have a bounded queue and overflow under SaturationPolicy. See
+ * MeteredExecutor for the counts every pool keeps.
+ *
+ * snapshots delivers Firestore snapshot events. It has one thread and an
+ * unbounded queue, so events for a listener arrive in order, are never run on
+ * Firestore's own thread and can be parsed off the main thread.
+ */
+public class AppExecutors {
+    private static final String TAG = "AppExecutors";
+
+    private static final int NETWORK_IO_THREADS = 3;
+    private static final int NETWORK_IO_QUEUE_CAPACITY = 128;
+    private static final int COMPUTE_QUEUE_CAPACITY = 64;
+
+    /**
+     * Overflow of a bounded pool runs on the submitting thread, or on the main
+     * thread on a thread of its own, as every task did before these pools
+     */
+    private static RejectedExecutionHandler saturationPolicy(String name) {
+        RejectedExecutionHandler policy = new SaturationPolicy(
+                () -> Looper.myLooper() == Looper.getMainLooper(),
+                task -> new Thread(task, name + "-overflow").start());
+        return (task, executor) -> {
+            Log.w(TAG, "Executor saturated: " + executor);
+            policy.rejectedExecution(task, executor);
+        };
+    }
+
+    private static volatile AppExecutors instance;
+
+    private final ExecutorService diskIO;
+    private final ExecutorService networkIO;
+    private final ExecutorService compute;
+    private final ExecutorService snapshots;
+    private final MainThreadExecutor mainThread;
+
+    public AppExecutors(ExecutorService diskIO, ExecutorService networkIO, ExecutorService compute,
+                        ExecutorService snapshots, MainThreadExecutor mainThread) {
+        this.diskIO = diskIO;
+        this.networkIO = networkIO;
+        this.compute = compute;
+        this.snapshots = snapshots;
+        this.mainThread = mainThread;
+    }
+
+    public static AppExecutors getInstance() {
+        if (instance == null) {
+            synchronized (AppExecutors.class) {
+                if (instance == null) {
+                    // Leave one core for the main thread
+                    int computeThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+                    instance = new AppExecutors(
+                            new MeteredExecutor("disk-io", 1),
+                            new MeteredExecutor("network-io", NETWORK_IO_THREADS, NETWORK_IO_QUEUE_CAPACITY,
+                                    saturationPolicy("network-io")),
+                            new MeteredExecutor("compute", computeThreads, COMPUTE_QUEUE_CAPACITY,
+                                    saturationPolicy("compute")),
+                            new MeteredExecutor("firestore-snapshots", 1),
+                            new MainThreadExecutor());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Room reads and writes
+     */
+    public ExecutorService diskIO() {
+        return diskIO;
+    }
+
+    /**
+     * Blocking network calls
+     */
+    public ExecutorService networkIO() {
+        return networkIO;
+    }
+
+    /**
+     * CPU-bound work
+     */
+    public ExecutorService compute() {
+        return compute;
+    }
+
+    /**
+     * Firestore snapshot events, in order
+     */
+    public ExecutorService snapshots() {
+        return snapshots;
+    }
+
+    public MainThreadExecutor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Log the counts of every pool, e.g. when looking into jank
+     */
+    public void logStats() {
+        for (ExecutorService executor : new ExecutorService[]{diskIO, networkIO, compute, snapshots}) {
+            Log.d(TAG, executor.toString());
+        }
+    }
+
+    /**
+     * Runs tasks on the main thread, optionally after a delay
+     */
+    public static class MainThreadExecutor implements Executor {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
+
+        public void executeDelayed(Runnable command, long delayMillis) {
+            handler.postDelayed(command, delayMillis);
+        }
+
+        /**
+         * Drop a task that has not run yet
+         */
+        public void cancel(Runnable command) {
+            handler.removeCallbacks(command);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.pantrypal.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs only the latest of the tasks handed to it on another executor. A task
+ * submitted while an earlier one is still queued replaces it, so a burst of
+ * superseded runs takes one queue slot instead of one each. A task already
+ * running is not affected.
+ */
+public class CoalescingExecutor implements Executor {
+    private final Executor executor;
+    private final AtomicReference<Runnable> latest = new AtomicReference<>();
+
+    public CoalescingExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (latest.getAndSet(task) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                Runnable next = latest.getAndSet(null);
+                if (next != null) {
+                    next.run();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Nothing is queued to clear the slot; free it for the next task
+            latest.set(null);
+            throw e;
+        }
+    }
+}
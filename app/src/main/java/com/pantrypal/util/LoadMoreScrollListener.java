@@ -0,0 +1,44 @@
+package com.pantrypal.util;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Reports the first visible position of a list as it scrolls, and asks for
+ * the next page when it is scrolled close to its last item
+ */
+public class LoadMoreScrollListener extends RecyclerView.OnScrollListener {
+    // Items left below the last visible one when the next page is requested
+    private static final int PREFETCH_DISTANCE = 10;
+
+    private final Runnable loadMore;
+    private final IntConsumer scrolledTo;
+
+    public LoadMoreScrollListener(Runnable loadMore, IntConsumer scrolledTo) {
+        this.loadMore = loadMore;
+        this.scrolledTo = scrolledTo;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof LinearLayoutManager)) {
+            return;
+        }
+        LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+        int firstVisible = linearLayoutManager.findFirstVisibleItemPosition();
+        if (firstVisible != RecyclerView.NO_POSITION) {
+            scrolledTo.accept(firstVisible);
+        }
+        if (dy <= 0) {
+            return;
+        }
+        int lastVisible = linearLayoutManager.findLastVisibleItemPosition();
+        if (lastVisible >= layoutManager.getItemCount() - PREFETCH_DISTANCE) {
+            loadMore.run();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.pantrypal.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size thread pool with a bounded or unbounded queue that counts what
+ * it runs: tasks submitted and rejected, the deepest the queue has been and
+ * the longest a task waited in it. Threads are named after the pool and exit
+ * after a minute idle.
+ */
+public class MeteredExecutor extends ThreadPoolExecutor {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    /** getQueueCapacity of a pool whose queue never fills */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final String name;
+    private final int queueCapacity;
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicInteger peakQueueSize = new AtomicInteger();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+    /**
+     * @param onSaturated runs a task that did not fit in the queue
+     */
+    public MeteredExecutor(String name, int threads, int queueCapacity, RejectedExecutionHandler onSaturated) {
+        this(name, threads, new ArrayBlockingQueue<>(queueCapacity), queueCapacity, onSaturated);
+    }
+
+    /**
+     * A pool whose queue never fills, for work that must neither be dropped
+     * nor run out of order. Tasks submitted after shutdown are dropped.
+     */
+    public MeteredExecutor(String name, int threads) {
+        this(name, threads, new LinkedBlockingQueue<>(), UNBOUNDED, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    private MeteredExecutor(String name, int threads, BlockingQueue<Runnable> queue, int queueCapacity,
+                            RejectedExecutionHandler onSaturated) {
+        super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, new NamedThreadFactory(name));
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler((task, executor) -> {
+            rejectedCount.incrementAndGet();
+            onSaturated.rejectedExecution(task, executor);
+        });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submittedCount.incrementAndGet();
+        super.execute(new QueuedTask(command));
+        peakQueueSize.accumulateAndGet(getQueue().size(), Math::max);
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        super.beforeExecute(thread, task);
+        if (task instanceof QueuedTask) {
+            long waitNanos = System.nanoTime() - ((QueuedTask) task).queuedAt;
+            maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+
+    public String getName() { return name; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+
+    public long getSubmittedCount() { return submittedCount.get(); }
+
+    public long getRejectedCount() { return rejectedCount.get(); }
+
+    public int getPeakQueueSize() { return peakQueueSize.get(); }
+
+    public long getMaxQueueWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return name + " [threads=" + getPoolSize() + "/" + getMaximumPoolSize()
+                + ", active=" + getActiveCount()
+                + ", queued=" + getQueue().size() + "/" + (queueCapacity == UNBOUNDED ? "unbounded" : queueCapacity)
+                + ", peakQueued=" + getPeakQueueSize()
+                + ", submitted=" + getSubmittedCount()
+                + ", completed=" + getCompletedTaskCount()
+                + ", rejected=" + getRejectedCount()
+                + ", maxWaitMs=" + getMaxQueueWaitMillis() + "]";
+    }
+
+    /**
+     * A task with the time it was queued
+     */
+    private static final class QueuedTask implements Runnable {
+        private final Runnable task;
+        private final long queuedAt = System.nanoTime();
+
+        QueuedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.pantrypal.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BooleanSupplier;
+
+/**
+ * What a pool does with a task that did not fit in its queue. Off the main
+ * thread the task runs on the submitting thread, so the producer slows down.
+ * The main thread can neither wait on disk or network nor throw, so there the
+ * task is handed to a fallback executor instead. Tasks submitted after
+ * shutdown are dropped.
+ */
+public class SaturationPolicy implements RejectedExecutionHandler {
+    private final BooleanSupplier onMainThread;
+    private final Executor mainThreadFallback;
+
+    /**
+     * @param onMainThread whether the calling thread is the main thread
+     * @param mainThreadFallback runs a task rejected on the main thread
+     */
+    public SaturationPolicy(BooleanSupplier onMainThread, Executor mainThreadFallback) {
+        this.onMainThread = onMainThread;
+        this.mainThreadFallback = mainThreadFallback;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        if (onMainThread.getAsBoolean()) {
+            mainThreadFallback.execute(task);
+        } else {
+            task.run();
+        }
+    }
+}
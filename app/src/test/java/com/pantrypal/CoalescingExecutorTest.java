@@ -0,0 +1,81 @@
+package com.pantrypal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.pantrypal.util.CoalescingExecutor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Unit tests for CoalescingExecutor
+ */
+public class CoalescingExecutorTest {
+
+    @Test
+    public void testQueuedTaskIsReplacedByLatest() {
+        // Arrange
+        List<Runnable> queue = new ArrayList<>();
+        CoalescingExecutor executor = new CoalescingExecutor(queue::add);
+        List<String> ran = new ArrayList<>();
+
+        // Act
+        executor.execute(() -> ran.add("first"));
+        executor.execute(() -> ran.add("second"));
+        executor.execute(() -> ran.add("third"));
+        queue.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(1, queue.size());
+        assertEquals(List.of("third"), ran);
+    }
+
+    @Test
+    public void testTaskAfterRunIsQueuedAgain() {
+        // Arrange
+        List<Runnable> queue = new ArrayList<>();
+        CoalescingExecutor executor = new CoalescingExecutor(queue::add);
+        List<String> ran = new ArrayList<>();
+        executor.execute(() -> ran.add("first"));
+        queue.remove(0).run();
+
+        // Act
+        executor.execute(() -> ran.add("second"));
+        queue.remove(0).run();
+
+        // Assert
+        assertEquals(List.of("first", "second"), ran);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testRejectedTaskDoesNotBlockLaterTasks() {
+        // Arrange
+        List<Runnable> queue = new ArrayList<>();
+        boolean[] reject = {true};
+        CoalescingExecutor executor = new CoalescingExecutor(task -> {
+            if (reject[0]) {
+                throw new RejectedExecutionException();
+            }
+            queue.add(task);
+        });
+        try {
+            executor.execute(() -> { });
+        } catch (RejectedExecutionException expected) {
+            // The slot must be freed
+        }
+        reject[0] = false;
+        List<String> ran = new ArrayList<>();
+
+        // Act
+        executor.execute(() -> ran.add("next"));
+        queue.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(List.of("next"), ran);
+    }
+}
@@ -0,0 +1,40 @@
+package com.pantrypal;
+
+import static org.junit.Assert.assertEquals;
+
+import com.pantrypal.data.database.FtsQuery;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for FtsQuery
+ */
+public class FtsQueryTest {
+
+    @Test
+    public void testPrefixMatchRequiresEveryTermAsPrefix() {
+        // Act
+        String match = FtsQuery.prefixMatch("Chick  cur");
+
+        // Assert
+        assertEquals("chick* cur*", match);
+        assertEquals("chick", FtsQuery.firstTerm("Chick  cur"));
+    }
+
+    @Test
+    public void testPrefixMatchDropsFtsSyntax() {
+        // Act
+        String match = FtsQuery.prefixMatch("\"gluten-free\" OR -bread*");
+
+        // Assert
+        assertEquals("gluten* free* or* bread*", match);
+    }
+
+    @Test
+    public void testPrefixMatchIsEmptyWithoutTerms() {
+        // Assert
+        assertEquals("", FtsQuery.prefixMatch("  *\"- "));
+        assertEquals("", FtsQuery.prefixMatch(null));
+        assertEquals("", FtsQuery.firstTerm(""));
+    }
+}
@@ -0,0 +1,171 @@
+package com.pantrypal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.pantrypal.util.MeteredExecutor;
+import com.pantrypal.util.SaturationPolicy;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for MeteredExecutor
+ */
+public class MeteredExecutorTest {
+
+    private MeteredExecutor executor;
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRunsTasksOnNamedThreads() throws Exception {
+        // Arrange
+        executor = new MeteredExecutor("disk-io", 1, 4, new ThreadPoolExecutor.AbortPolicy());
+
+        // Act
+        String threadName = executor.submit(() -> Thread.currentThread().getName()).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("disk-io-1", threadName);
+        assertEquals(1, executor.getSubmittedCount());
+    }
+
+    @Test
+    public void testFullQueueFallsBackAndCountsRejection() throws Exception {
+        // Arrange
+        executor = new MeteredExecutor("disk-io", 1, 2, new ThreadPoolExecutor.CallerRunsPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await(1, TimeUnit.SECONDS);
+        executor.execute(() -> { });
+        executor.execute(() -> { });
+
+        // Act
+        String[] ranOn = new String[1];
+        executor.execute(() -> ranOn[0] = Thread.currentThread().getName());
+        release.countDown();
+
+        // Assert
+        assertEquals(Thread.currentThread().getName(), ranOn[0]);
+        assertEquals(4, executor.getSubmittedCount());
+        assertEquals(1, executor.getRejectedCount());
+        assertEquals(2, executor.getPeakQueueSize());
+    }
+
+    @Test
+    public void testFullQueueOnMainThreadHandsTaskToFallback() throws Exception {
+        // Arrange
+        List<Runnable> fallback = new ArrayList<>();
+        executor = new MeteredExecutor("compute", 1, 1, new SaturationPolicy(() -> true, fallback::add));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await(1, TimeUnit.SECONDS);
+        executor.execute(() -> { });
+
+        // Act
+        boolean[] ran = new boolean[1];
+        executor.execute(() -> ran[0] = true);
+        boolean ranBeforeFallback = ran[0];
+        release.countDown();
+        fallback.get(0).run();
+
+        // Assert
+        assertFalse(ranBeforeFallback);
+        assertEquals(1, fallback.size());
+        assertTrue(ran[0]);
+        assertEquals(1, executor.getRejectedCount());
+    }
+
+    @Test
+    public void testFullQueueOffMainThreadRunsOnCaller() throws Exception {
+        // Arrange
+        List<Runnable> fallback = new ArrayList<>();
+        executor = new MeteredExecutor("compute", 1, 1, new SaturationPolicy(() -> false, fallback::add));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await(1, TimeUnit.SECONDS);
+        executor.execute(() -> { });
+
+        // Act
+        String[] ranOn = new String[1];
+        executor.execute(() -> ranOn[0] = Thread.currentThread().getName());
+        release.countDown();
+
+        // Assert
+        assertEquals(Thread.currentThread().getName(), ranOn[0]);
+        assertTrue(fallback.isEmpty());
+    }
+
+    @Test
+    public void testUnboundedQueueNeverRejects() throws Exception {
+        // Arrange
+        executor = new MeteredExecutor("disk-io", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        List<Integer> order = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            int task = i;
+            executor.execute(() -> order.add(task));
+        }
+        release.countDown();
+        executor.submit(() -> { }).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(0, executor.getRejectedCount());
+        assertEquals(1000, order.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    public void testRecordsQueueWait() throws Exception {
+        // Arrange
+        executor = new MeteredExecutor("compute", 1, 4, new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> { });
+
+        // Act
+        Thread.sleep(50);
+        release.countDown();
+        executor.submit(() -> { }).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(executor.getMaxQueueWaitMillis() >= 50);
+        assertEquals(0, executor.getRejectedCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package com.pantrypal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.pantrypal.data.mock.MockRecipeData;
+import com.pantrypal.data.model.DietaryTags;
+import com.pantrypal.data.model.PantryItem;
+import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.User;
+import com.pantrypal.data.service.IncrementalRecommendationEngine;
+import com.pantrypal.data.service.IngredientDictionary;
+import com.pantrypal.data.service.IngredientIndex;
+import com.pantrypal.data.service.PantryMatcher;
+import com.pantrypal.data.service.RecipeIngredientCache;
+import com.pantrypal.data.service.RecipeRecommendationService;
+import com.pantrypal.data.service.RecommendationCache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Unit tests for RecipeRecommendationService
+ *
+ * Runs on the plain JVM; org.json comes from the test classpath.
+ */
+public class RecipeRecommendationServiceTest {
+
+    private List<PantryItem> pantryItems;
+
+    @Before
+    public void setUp() {
+        RecipeIngredientCache.clear();
+
+        pantryItems = new ArrayList<>();
+        pantryItems.add(pantryItem("item-1", "Chicken Breast"));
+        pantryItems.add(pantryItem("item-2", "Rice"));
+        pantryItems.add(pantryItem("item-3", "Onions"));
+    }
+
+    @Test
+    public void testMissingIngredientsUsesPartialMatches() {
+        // Arrange
+        Recipe recipe = recipe(1, "Dinner", "Chicken", "Basmati Rice", "Saffron", "Ghee");
+
+        // Act
+        List<String> missing = RecipeRecommendationService.getMissingIngredients(recipe, pantryItems);
+
+        // Assert
+        assertEquals(Arrays.asList("Saffron", "Ghee"), missing);
+    }
+
+    @Test
+    public void testShoppingListForMealPlanRecipeIds() {
+        // Arrange
+        Recipe curry = recipe(1, "Dinner", "Chicken", "Saffron", "Ghee");
+        Recipe pilaf = recipe(2, "Dinner", "Basmati Rice", "saffron", "Peas");
+        Recipe salad = recipe(3, "Lunch", "Lettuce");
+        List<Recipe> allRecipes = Arrays.asList(curry, pilaf, salad);
+
+        // Act
+        RecipeRecommendationService.ShoppingList shoppingList = RecipeRecommendationService.getShoppingList(
+                allRecipes, Arrays.asList("2", "1", "2", "99"), pantryItems);
+
+        // Assert
+        assertEquals(Arrays.asList(2, 1), new ArrayList<>(shoppingList.getMissingByRecipe().keySet()));
+        assertEquals(Arrays.asList("saffron", "Peas"), shoppingList.getMissingIngredients(2));
+        assertEquals(RecipeRecommendationService.getMissingIngredients(curry, pantryItems),
+                shoppingList.getMissingIngredients(1));
+        assertEquals(Arrays.asList("saffron", "Peas", "Ghee"), shoppingList.getItems());
+    }
+
+    @Test
+    public void testParsedIngredientsAreCachedUntilJsonChanges() {
+        // Arrange
+        Recipe recipe = recipe(1, "Dinner", "Chicken", "Saffron");
+
+        // Act
+        RecipeIngredientCache.ParsedIngredients first = RecipeIngredientCache.get(recipe);
+        RecipeIngredientCache.ParsedIngredients second = RecipeIngredientCache.get(recipe);
+        recipe.setIngredients(ingredientsJson("Chicken", "Rice"));
+        RecipeIngredientCache.ParsedIngredients edited = RecipeIngredientCache.get(recipe);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("rice", edited.getNormalizedName(1));
+        assertTrue(RecipeRecommendationService.getMissingIngredients(recipe, pantryItems).isEmpty());
+    }
+
+    // Current behavior, not the intended one: the scorer reads {"name": ...}
+    // objects, so a plain string array gets no pantry match
+    @Test
+    public void testStringArrayIngredientsCurrentlyGetNoPantryMatch() {
+        // Arrange
+        Recipe recipe = recipe(1, "Dinner");
+        recipe.setIngredients("[\"500g chicken breast\", \"2 cups rice\"]");
+
+        // Act
+        RecipeIngredientCache.ParsedIngredients parsed = RecipeIngredientCache.get(recipe);
+        List<Recipe> canMake = RecipeRecommendationService.getRecipesYouCanMake(
+                Arrays.asList(recipe), pantryItems);
+
+        // Assert
+        assertFalse(parsed.isComplete());
+        assertTrue(canMake.isEmpty());
+    }
+
+    // Current behavior for the string arrays MockRecipeData seeds: a pantry
+    // holding Butter Chicken's ingredients still gets no pantry match
+    @Test
+    public void testMockCatalogIngredientsCurrentlyGetNoPantryMatch() {
+        // Arrange
+        List<Recipe> catalog = MockRecipeData.getAllRecipes();
+        Recipe butterChicken = catalog.get(0);
+        List<PantryItem> pantry = Arrays.asList(
+                pantryItem("item-1", "chicken breast"),
+                pantryItem("item-2", "tomatoes"),
+                pantryItem("item-3", "yogurt"));
+
+        // Act
+        RecipeIngredientCache.ParsedIngredients parsed = RecipeIngredientCache.get(butterChicken);
+        IngredientIndex.CatalogMatch match = IngredientIndex.build(catalog)
+                .match(new HashSet<>(Arrays.asList("chicken breast", "tomatoes", "yogurt")));
+        List<Recipe> canMake = RecipeRecommendationService.getRecipesYouCanMake(catalog, pantry);
+
+        // Assert
+        assertFalse(parsed.isComplete());
+        assertEquals(0, match.getCandidates().length);
+        assertEquals(0.0, match.getPantryMatchScore(0), 0.0001);
+        assertTrue(canMake.isEmpty());
+    }
+
+    @Test
+    public void testRecipesYouCanMakeRequiresNinetyPercent() {
+        // Arrange
+        Recipe allAvailable = recipe(1, "Dinner", "Chicken", "Rice", "Onion");
+        Recipe oneMissing = recipe(2, "Dinner", "Chicken", "Rice", "Saffron");
+
+        // Act
+        List<Recipe> canMake = RecipeRecommendationService.getRecipesYouCanMake(
+                Arrays.asList(allAvailable, oneMissing), pantryItems);
+
+        // Assert
+        assertEquals(1, canMake.size());
+        assertSame(allAvailable, canMake.get(0));
+    }
+
+    @Test
+    public void testIndexOnlyVisitsRecipesSharingAnIngredient() {
+        // Arrange
+        List<Recipe> catalog = Arrays.asList(
+                recipe(1, "Dinner", "Saffron", "Ghee"),
+                recipe(2, "Dinner", "Chicken", "Saffron"),
+                recipe(3, "Dinner", "Paneer"),
+                recipe(4, "Dinner", "Red Onion", "Rice"));
+        Set<String> pantry = new HashSet<>(Arrays.asList("chicken breast", "rice", "onions"));
+
+        // Act
+        IngredientIndex.CatalogMatch match = IngredientIndex.build(catalog).match(pantry);
+
+        // Assert
+        assertArrayEquals(new int[] {1, 3}, match.getCandidates());
+        assertEquals(1, match.getMatchedCount(1));
+        assertEquals(1, match.getMatchedCount(3));
+        assertEquals(25.0, match.getPantryMatchScore(1), 0.0001);
+        assertEquals(0.0, match.getPantryMatchScore(0), 0.0001);
+    }
+
+    @Test
+    public void testCatalogIndexSeesInPlaceEdits() {
+        // Arrange
+        List<Recipe> catalog = new ArrayList<>(Arrays.asList(
+                recipe(1, "Dinner", "Saffron", "Rice"),
+                recipe(2, "Dinner", "Paneer")));
+        RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 5);
+
+        // Act
+        catalog.set(0, recipe(1, "Dinner", "Chicken", "Rice"));
+        List<RecipeRecommendationService.RecipeRecommendation> afterSet =
+                RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 5);
+        catalog.get(1).setIngredients(ingredientsJson("Onion"));
+        List<Recipe> canMake = RecipeRecommendationService.getRecipesYouCanMake(catalog, pantryItems);
+
+        // Assert
+        assertEquals(75.0, afterSet.get(0).getScore(), 0.0001);
+        assertEquals(2, canMake.size());
+    }
+
+    @Test
+    public void testFrozenCatalogIndexIsReusedUntilARecipeChanges() {
+        // Arrange
+        List<Recipe> catalog = IngredientIndex.frozenCatalog(Arrays.asList(
+                recipe(1, "Dinner", "Saffron", "Rice"),
+                recipe(2, "Dinner", "Paneer")));
+        IngredientIndex first = IngredientIndex.forCatalog(catalog);
+
+        // Act
+        IngredientIndex unchanged = IngredientIndex.forCatalog(catalog);
+        catalog.get(1).setIngredients(ingredientsJson("Chicken"));
+        IngredientIndex edited = IngredientIndex.forCatalog(catalog);
+        IngredientIndex.CatalogMatch match = edited.match(new HashSet<>(Arrays.asList("chicken")));
+
+        // Assert
+        assertSame(first, unchanged);
+        assertNotSame(first, edited);
+        assertArrayEquals(new int[] {1}, match.getCandidates());
+        assertEquals(1, match.getMatchedCount(1));
+        assertEquals(0, match.getMatchedCount(0));
+    }
+
+    @Test
+    public void testPantryMatcherKeepsPartialMatchSemantics() {
+        // Arrange
+        PantryMatcher matcher = PantryMatcher.forPantry(pantryItems);
+
+        // Assert
+        assertTrue(matcher.matches("chicken"));
+        assertTrue(matcher.matches("chicken breast"));
+        assertTrue(matcher.matches("boneless chicken breast fillet"));
+        assertTrue(matcher.matches("basmati rice"));
+        assertTrue(matcher.matches("onion"));
+        assertFalse(matcher.matches("saffron"));
+        assertFalse(matcher.matches("chicken thigh"));
+        assertFalse(PantryMatcher.forPantry(new ArrayList<>()).matches(""));
+    }
+
+    @Test
+    public void testRecommendationsKeepTopScoresInCatalogOrderForTies() {
+        // Arrange
+        List<Recipe> catalog = Arrays.asList(
+                recipe(1, "Dinner", "Saffron"),
+                recipe(2, "Dinner", "Chicken", "Rice"),
+                recipe(3, "Dinner", "Paneer"),
+                recipe(4, "Dinner", "Chicken", "Onion"),
+                recipe(5, "Dinner", "Chicken", "Saffron"));
+
+        // Act
+        List<RecipeRecommendationService.RecipeRecommendation> recommendations =
+                RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 3);
+
+        // Assert
+        assertEquals(3, recommendations.size());
+        assertEquals(2, recommendations.get(0).getRecipe().getId());
+        assertEquals(4, recommendations.get(1).getRecipe().getId());
+        assertEquals(5, recommendations.get(2).getRecipe().getId());
+        assertEquals(75.0, recommendations.get(0).getScore(), 0.0001);
+        assertEquals(50.0, recommendations.get(2).getScore(), 0.0001);
+    }
+
+    @Test
+    public void testZeroMaxResultsReturnsNoRecommendations() {
+        // Arrange
+        List<Recipe> catalog = Arrays.asList(
+                recipe(1, "Dinner", "Chicken", "Rice"),
+                recipe(2, "Dinner", "Saffron"));
+
+        // Act
+        List<RecipeRecommendationService.RecipeRecommendation> sequential =
+                RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 0);
+        List<RecipeRecommendationService.RecipeRecommendation> parallel =
+                RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 0, true);
+
+        // Assert
+        assertTrue(sequential.isEmpty());
+        assertTrue(parallel.isEmpty());
+    }
+
+    @Test
+    public void testIncrementalEngineMatchesFullRecommendationAfterDeltas() {
+        // Arrange
+        List<Recipe> catalog = Arrays.asList(
+                recipe(1, "Dinner", "Saffron", "Ghee"),
+                recipe(2, "Dinner", "Chicken", "Rice"),
+                recipe(3, "Dinner", "Paneer", "Spinach"),
+                recipe(4, "Dinner", "Chicken", "Onion"));
+        IncrementalRecommendationEngine engine = new IncrementalRecommendationEngine();
+        engine.setCatalog(catalog);
+        engine.setUser(null);
+        engine.setPantry(pantryItems);
+
+        // Act
+        engine.addPantryItem(pantryItem("item-4", "Paneer"));
+        engine.renamePantryItem("item-2", "Spinach");
+        engine.removePantryItem("item-3");
+
+        List<PantryItem> updatedPantry = new ArrayList<>();
+        updatedPantry.add(pantryItem("item-1", "Chicken Breast"));
+        updatedPantry.add(pantryItem("item-2", "Spinach"));
+        updatedPantry.add(pantryItem("item-4", "Paneer"));
+
+        // Assert
+        List<RecipeRecommendationService.RecipeRecommendation> expected =
+                RecipeRecommendationService.recommendRecipes(catalog, updatedPantry, null, 10);
+        List<RecipeRecommendationService.RecipeRecommendation> actual = engine.getTopRecommendations(10);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i).getRecipe(), actual.get(i).getRecipe());
+            assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), 0.0);
+        }
+        assertEquals(3, actual.get(0).getRecipe().getId());
+    }
+
+    @Test
+    public void testParallelScoringMatchesSequential() {
+        // Arrange: enough recipes to split into several partitions, many of them tied
+        String[][] menus = {
+                {"Chicken", "Rice"}, {"Saffron", "Ghee"}, {"Chicken", "Onion", "Paneer"}, {"Rice"}};
+        List<Recipe> catalog = new ArrayList<>();
+        for (int id = 1; id <= 20000; id++) {
+            catalog.add(recipe(id, "Dinner", menus[id % menus.length]));
+        }
+
+        // Act
+        List<RecipeRecommendationService.RecipeRecommendation> sequential =
+                RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 25);
+        List<RecipeRecommendationService.RecipeRecommendation> parallel =
+                RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 25, true);
+
+        // Assert
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertSame(sequential.get(i).getRecipe(), parallel.get(i).getRecipe());
+            assertEquals(sequential.get(i).getScore(), parallel.get(i).getScore(), 0.0);
+        }
+        assertEquals(RecipeRecommendationService.getRecipesYouCanMake(catalog, pantryItems),
+                RecipeRecommendationService.getRecipesYouCanMake(catalog, pantryItems, true));
+    }
+
+    @Test
+    public void testPantryBitsetOfDictionaryIdsCountsMatches() {
+        // Arrange
+        IngredientDictionary dictionary = IngredientDictionary.getInstance();
+        List<Recipe> catalog = Arrays.asList(
+                recipe(1, "Dinner", "Chicken", "Rice", "Rice"),
+                recipe(2, "Dinner", "Saffron"));
+        IngredientIndex index = IngredientIndex.build(catalog);
+        BitSet pantryKeys = new BitSet();
+        pantryKeys.set(dictionary.intern("rice"));
+
+        // Act
+        IngredientIndex.CatalogMatch match = index.match(pantryKeys);
+
+        // Assert
+        assertEquals(dictionary.intern("rice"), dictionary.idOf("rice"));
+        assertEquals("rice", dictionary.nameOf(dictionary.idOf("rice")));
+        assertArrayEquals(new int[] {0}, match.getCandidates());
+        assertEquals(2, match.getMatchedCount(0));
+        assertEquals(0, match.getMatchedCount(1));
+    }
+
+    @Test
+    public void testThresholdMatchAgreesWithMatchScores() {
+        // Arrange
+        List<Recipe> catalog = Arrays.asList(
+                recipe(1, "Dinner", "Rice", "Rice", "Rice", "Rice", "Rice",
+                        "Rice", "Rice", "Rice", "Rice", "Saffron"),
+                recipe(2, "Dinner", "Rice", "Chicken", "Onion", "Garlic", "Salt",
+                        "Pepper", "Oil", "Cumin", "Ghee", "Saffron"),
+                recipe(3, "Dinner", "Chicken", "Rice"),
+                recipe(4, "Dinner"));
+        IngredientIndex index = IngredientIndex.build(catalog);
+        BitSet pantryKeys = index.matchingKeys(new HashSet<>(Arrays.asList(
+                "rice", "chicken", "onion", "garlic", "salt", "pepper", "oil", "cumin", "ghee")));
+        IngredientIndex.CatalogMatch match = index.match(pantryKeys);
+
+        // Act
+        int[] canMake = index.matchAtLeast(pantryKeys, 45.0);
+
+        // Assert
+        assertArrayEquals(new int[] {0, 1, 2}, canMake);
+        for (int position = 0; position < catalog.size(); position++) {
+            boolean reachesThreshold = Arrays.binarySearch(canMake, position) >= 0;
+            assertEquals(match.getPantryMatchScore(position) >= 45.0, reachesThreshold);
+        }
+    }
+
+    @Test
+    public void testDietaryTagsDerivedFromCategoryDriveDietaryScore() {
+        // Arrange
+        Recipe veganBowl = recipe(1, "Vegan Bowl");
+        Recipe chickenCurry = recipe(2, "Chicken Curry");
+        Recipe salad = recipe(3, "Salad");
+        User vegan = new User();
+        vegan.setDietaryPreferences("Vegan");
+
+        // Act
+        salad.setCategory("Egg Salad");
+
+        // Assert
+        assertEquals(DietaryTags.VEGAN, veganBowl.getDietaryTags());
+        assertEquals(DietaryTags.CHICKEN, chickenCurry.getDietaryTags());
+        assertEquals(DietaryTags.EGG, salad.getDietaryTags());
+        List<RecipeRecommendationService.RecipeRecommendation> recommendations =
+                RecipeRecommendationService.recommendRecipes(
+                        Arrays.asList(veganBowl, chickenCurry, salad), new ArrayList<>(), vegan, 3);
+        assertSame(veganBowl, recommendations.get(0).getRecipe());
+        // 30 points for naming the diet against 5 for listing chicken
+        assertEquals(25.0, recommendations.get(0).getScore() - recommendations.get(1).getScore(), 0.0001);
+        assertEquals(recommendations.get(1).getScore(), recommendations.get(2).getScore(), 0.0001);
+    }
+
+    @Test
+    public void testSameScoringInputsIgnoresDisplayOnlyFields() {
+        // Arrange
+        List<Recipe> catalog = Arrays.asList(recipe(1, "Dinner", "Rice"), recipe(2, "Lunch", "Onion"));
+        List<Recipe> reloaded = Arrays.asList(recipe(1, "Dinner", "Rice"), recipe(2, "Lunch", "Onion"));
+        reloaded.get(0).setName("Renamed");
+        List<Recipe> edited = Arrays.asList(recipe(1, "Dinner", "Rice"), recipe(2, "Lunch", "Onion"));
+        edited.get(1).setIngredients(ingredientsJson("Onion", "Saffron"));
+
+        // Assert
+        assertTrue(RecipeRecommendationService.sameScoringInputs(catalog, reloaded));
+        assertFalse(RecipeRecommendationService.sameScoringInputs(catalog, edited));
+        assertFalse(RecipeRecommendationService.sameScoringInputs(catalog, catalog.subList(0, 1)));
+    }
+
+    @Test
+    public void testRecommendationCacheReusesRankingForSameInputs() {
+        // Arrange
+        RecommendationCache cache = new RecommendationCache(4);
+        List<Recipe> catalog = Arrays.asList(
+                recipe(1, "Dinner", "Saffron"),
+                recipe(2, "Dinner", "Chicken", "Rice"));
+        List<Recipe> reloadedCatalog = Arrays.asList(
+                recipe(1, "Dinner", "Saffron"),
+                recipe(2, "Dinner", "Chicken", "Rice"));
+        int[] computeCount = new int[1];
+
+        // Act
+        cache.getOrCompute(catalog, pantryItems, null, 5, () -> {
+            computeCount[0]++;
+            return RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 5);
+        });
+        List<RecipeRecommendationService.RecipeRecommendation> cached =
+                cache.getOrCompute(reloadedCatalog, pantryItems, null, 5, () -> {
+                    computeCount[0]++;
+                    return RecipeRecommendationService.recommendRecipes(reloadedCatalog, pantryItems, null, 5);
+                });
+        cache.recommend(catalog, pantryItems.subList(0, 1), null, 5);
+
+        // Assert
+        assertEquals(1, computeCount[0]);
+        assertSame(reloadedCatalog.get(1), cached.get(0).getRecipe());
+        assertEquals(75.0, cached.get(0).getScore(), 0.0001);
+        cache.invalidate();
+        cache.getOrCompute(catalog, pantryItems, null, 5, () -> {
+            computeCount[0]++;
+            return RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 5);
+        });
+        assertEquals(2, computeCount[0]);
+    }
+
+    @Test
+    public void testRecommendationCacheMissesWhenDietaryTagsChange() {
+        // Arrange
+        RecommendationCache cache = new RecommendationCache(4);
+        List<Recipe> catalog = Arrays.asList(
+                recipe(1, "Dinner", "Saffron"),
+                recipe(2, "Dinner", "Chicken", "Rice"));
+        int[] computeCount = new int[1];
+        Supplier<List<RecipeRecommendationService.RecipeRecommendation>> compute = () -> {
+            computeCount[0]++;
+            return RecipeRecommendationService.recommendRecipes(catalog, pantryItems, null, 5);
+        };
+        cache.getOrCompute(catalog, pantryItems, null, 5, compute);
+
+        // Act
+        catalog.get(0).setDietaryTags(DietaryTags.VEGAN);
+        cache.getOrCompute(catalog, pantryItems, null, 5, compute);
+
+        // Assert
+        assertEquals(2, computeCount[0]);
+    }
+
+    static PantryItem pantryItem(String id, String name) {
+        return new PantryItem(id, "test-user-123", name, "Test", "1", "pieces", null, "", "");
+    }
+
+    static Recipe recipe(int id, String category, String... ingredientNames) {
+        return new Recipe(id, "Recipe " + id, "", "", category, 30, "Easy",
+                ingredientsJson(ingredientNames), "[]", "{}", 2, 400, false, 0.0);
+    }
+
+    static String ingredientsJson(String... names) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"name\":\"").append(names[i]).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,163 @@
+package com.pantrypal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.pantrypal.data.firebase.SnapshotListenerRegistry;
+import com.pantrypal.util.AppExecutors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Unit tests for SnapshotListenerRegistry
+ */
+public class SnapshotListenerRegistryTest {
+
+    private AppExecutors.MainThreadExecutor mockMainThread;
+    private Query mockQuery;
+    private ListenerRegistration mockRegistration;
+    private SnapshotListenerRegistry registry;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        mockMainThread = mock(AppExecutors.MainThreadExecutor.class);
+        mockQuery = mock(Query.class);
+        mockRegistration = mock(ListenerRegistration.class);
+        when(mockQuery.addSnapshotListener(any(Executor.class), any(EventListener.class)))
+                .thenReturn(mockRegistration);
+        // Deliver snapshots on the test thread
+        registry = new SnapshotListenerRegistry(mockMainThread, Runnable::run);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSubscribersShareOneListener() {
+        // Arrange
+        List<QuerySnapshot> first = new ArrayList<>();
+        List<QuerySnapshot> second = new ArrayList<>();
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+
+        // Act
+        registry.subscribe(mockQuery, (value, error) -> first.add(value));
+        ArgumentCaptor<EventListener<QuerySnapshot>> listener = ArgumentCaptor.forClass(EventListener.class);
+        verify(mockQuery).addSnapshotListener(any(Executor.class), listener.capture());
+        listener.getValue().onEvent(snapshot, null);
+        registry.subscribe(mockQuery, (value, error) -> second.add(value));
+
+        // Assert
+        verify(mockQuery, times(1)).addSnapshotListener(any(Executor.class), any(EventListener.class));
+        assertEquals(1, registry.getAttachedCount());
+        assertEquals(1, first.size());
+        // A late subscriber gets the latest snapshot right away
+        assertEquals(1, second.size());
+        assertEquals(snapshot, second.get(0));
+    }
+
+    @Test
+    public void testDetachesAfterGracePeriodOnceUnused() {
+        // Arrange
+        SnapshotListenerRegistry.Subscription first = registry.subscribe(mockQuery, (value, error) -> { });
+        SnapshotListenerRegistry.Subscription second = registry.subscribe(mockQuery, (value, error) -> { });
+
+        // Act
+        first.release();
+        verify(mockMainThread, never()).executeDelayed(any(Runnable.class), anyLong());
+        second.release();
+        second.release();
+        ArgumentCaptor<Runnable> detach = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockMainThread).executeDelayed(detach.capture(), anyLong());
+        detach.getValue().run();
+
+        // Assert
+        verify(mockRegistration).remove();
+        assertEquals(0, registry.getAttachedCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testResubscribingWithinGracePeriodKeepsListener() {
+        // Arrange
+        registry.subscribe(mockQuery, (value, error) -> { }).release();
+        ArgumentCaptor<Runnable> detach = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockMainThread).executeDelayed(detach.capture(), anyLong());
+
+        // Act
+        registry.subscribe(mockQuery, (value, error) -> { });
+        // A detach that was already due does nothing while subscribed
+        detach.getValue().run();
+
+        // Assert
+        verify(mockQuery, times(1)).addSnapshotListener(any(Executor.class), any(EventListener.class));
+        verify(mockRegistration, never()).remove();
+        assertEquals(1, registry.getAttachedCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedListenerIsReplacedOnNextSubscribe() {
+        // Arrange
+        List<FirebaseFirestoreException> errors = new ArrayList<>();
+        registry.subscribe(mockQuery, (value, error) -> errors.add(error));
+        ArgumentCaptor<EventListener<QuerySnapshot>> listener = ArgumentCaptor.forClass(EventListener.class);
+        verify(mockQuery).addSnapshotListener(any(Executor.class), listener.capture());
+        FirebaseFirestoreException failure = mock(FirebaseFirestoreException.class);
+
+        // Act
+        listener.getValue().onEvent(null, failure);
+        // Subscribing before the failed listener is dropped still attaches anew
+        registry.subscribe(mockQuery, (value, error) -> { });
+        ArgumentCaptor<Runnable> drop = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockMainThread).execute(drop.capture());
+        drop.getValue().run();
+
+        // Assert
+        assertEquals(1, errors.size());
+        verify(mockRegistration).remove();
+        verify(mockQuery, times(2)).addSnapshotListener(any(Executor.class), any(EventListener.class));
+        assertEquals(1, registry.getAttachedCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReplayIsQueuedOnSnapshotExecutor() {
+        // Arrange
+        List<Runnable> queued = new ArrayList<>();
+        registry = new SnapshotListenerRegistry(mockMainThread, queued::add);
+        registry.subscribe(mockQuery, (value, error) -> { });
+        ArgumentCaptor<EventListener<QuerySnapshot>> listener = ArgumentCaptor.forClass(EventListener.class);
+        verify(mockQuery).addSnapshotListener(any(Executor.class), listener.capture());
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        listener.getValue().onEvent(snapshot, null);
+        List<QuerySnapshot> late = new ArrayList<>();
+
+        // Act
+        registry.subscribe(mockQuery, (value, error) -> late.add(value));
+        boolean replayedInline = !late.isEmpty();
+        queued.forEach(Runnable::run);
+
+        // Assert
+        assertFalse(replayedInline);
+        assertEquals(1, queued.size());
+        assertEquals(1, late.size());
+        assertEquals(snapshot, late.get(0));
+    }
+}
@@ -0,0 +1,124 @@
+package com.pantrypal.benchmark;
+
+import com.pantrypal.data.mock.MockPantryData;
+import com.pantrypal.data.mock.MockRecipeData;
+import com.pantrypal.data.model.PantryItem;
+import com.pantrypal.data.model.Recipe;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Synthetic catalogs and pantries scaled up from MockRecipeData and
+ * MockPantryData. Output is deterministic for a given size and seed.
+ *
+ * Recipes reuse the mock recipes' categories, nutrition and instructions and
+ * draw ingredients from the mock ingredient lines, written as {"name": ...}
+ * objects so they go through pantry matching. Every recipe also gets some
+ * generated "spice blend" ingredients, so the ingredient vocabulary grows
+ * with the catalog instead of staying at the mock data's ~150 lines.
+ */
+public final class CatalogGenerator {
+
+    // One recipe in this many keeps the mock data's plain-string ingredients
+    private static final int PLAIN_STRING_EVERY = 20;
+
+    private CatalogGenerator() {
+    }
+
+    public static List<Recipe> recipes(int count, long seed) {
+        Random random = new Random(seed);
+        List<Recipe> templates = MockRecipeData.getAllRecipes();
+        List<String> ingredientPool = ingredientLines(templates);
+        int blendCount = Math.max(1, count / 10);
+
+        List<Recipe> recipes = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Recipe template = templates.get((id - 1) % templates.size());
+            String ingredients;
+            if (id % PLAIN_STRING_EVERY == 0) {
+                ingredients = template.getIngredients();
+            } else {
+                List<String> names = new ArrayList<>();
+                int poolIngredients = 4 + random.nextInt(8);
+                for (int i = 0; i < poolIngredients; i++) {
+                    names.add(ingredientPool.get(random.nextInt(ingredientPool.size())));
+                }
+                int blends = 1 + random.nextInt(3);
+                for (int i = 0; i < blends; i++) {
+                    names.add(blendName(random.nextInt(blendCount)));
+                }
+                ingredients = toIngredientsJson(names);
+            }
+
+            int calories = Math.max(50, template.getCalories() + random.nextInt(201) - 100);
+            recipes.add(new Recipe(id, template.getName() + " #" + id, template.getDescription(),
+                    template.getImageUrl(), template.getCategory(), template.getCookingTime(),
+                    template.getDifficulty(), ingredients, template.getInstructions(),
+                    template.getNutrition(), template.getServings(), calories, false,
+                    template.getMatchPercentage()));
+        }
+        return recipes;
+    }
+
+    /**
+     * The mock pantry first, then generated spice blends drawn from the
+     * vocabulary of a catalog of catalogSize recipes
+     */
+    public static List<PantryItem> pantry(int count, int catalogSize, long seed) {
+        Random random = new Random(seed);
+        List<PantryItem> mockItems = MockPantryData.getAllPantryItems();
+        int blendCount = Math.max(1, catalogSize / 10);
+
+        List<PantryItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i < mockItems.size()) {
+                items.add(mockItems.get(i));
+            } else {
+                PantryItem template = mockItems.get(i % mockItems.size());
+                items.add(new PantryItem("bench-item-" + i, template.getUserId(),
+                        blendName(random.nextInt(blendCount)), "Spices", "1", "packet",
+                        template.getExpirationDate(), "", ""));
+            }
+        }
+        return items;
+    }
+
+    private static List<String> ingredientLines(List<Recipe> templates) {
+        List<String> lines = new ArrayList<>();
+        try {
+            for (Recipe template : templates) {
+                JSONArray ingredients = new JSONArray(template.getIngredients());
+                for (int i = 0; i < ingredients.length(); i++) {
+                    lines.add(ingredients.getString(i));
+                }
+            }
+        } catch (JSONException e) {
+            throw new IllegalStateException("Mock recipe ingredients are not a JSON array", e);
+        }
+        return lines;
+    }
+
+    private static String toIngredientsJson(List<String> names) {
+        JSONArray ingredients = new JSONArray();
+        try {
+            for (String name : names) {
+                ingredients.put(new JSONObject().put("name", name));
+            }
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        return ingredients.toString();
+    }
+
+    private static String blendName(int blend) {
+        // Zero-padded so no blend name is a substring of another
+        return String.format(Locale.US, "spice blend %06d", blend);
+    }
+}
@@ -0,0 +1,80 @@
+package com.pantrypal.benchmark;
+
+import com.pantrypal.data.mock.MockUserData;
+import com.pantrypal.data.model.PantryItem;
+import com.pantrypal.data.model.Recipe;
+import com.pantrypal.data.model.User;
+import com.pantrypal.data.service.IngredientIndex;
+import com.pantrypal.data.service.RecipeIngredientCache;
+import com.pantrypal.data.service.RecipeRecommendationService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Scaling of RecipeRecommendationService over catalog and pantry size.
+ * Modes, time unit and the gc profiler are configured in build.gradle.
+ *
+ * The catalog index and parsed ingredients are built once per trial, as
+ * they are in the app after the first run; buildIndex measures that cost.
+ */
+@State(Scope.Benchmark)
+public class RecipeRecommendationBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({"10", "1000", "10000", "100000"})
+    public int recipeCount;
+
+    @Param({"10", "100", "1000"})
+    public int pantrySize;
+
+    private List<Recipe> recipes;
+    private List<PantryItem> pantryItems;
+    private User user;
+    private Recipe sampleRecipe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RecipeIngredientCache.clear();
+        // Frozen, as the app's catalog is, so forCatalog checks it in constant time
+        recipes = IngredientIndex.frozenCatalog(CatalogGenerator.recipes(recipeCount, SEED));
+        pantryItems = CatalogGenerator.pantry(pantrySize, recipeCount, SEED);
+        user = MockUserData.getMockUser();
+        sampleRecipe = recipes.get(recipes.size() / 2);
+
+        // Warm the shared index for this catalog
+        IngredientIndex.forCatalog(recipes);
+    }
+
+    @Benchmark
+    public List<RecipeRecommendationService.RecipeRecommendation> recommendRecipes() {
+        return RecipeRecommendationService.recommendRecipes(recipes, pantryItems, user, 10);
+    }
+
+    @Benchmark
+    public List<RecipeRecommendationService.RecipeRecommendation> recommendRecipesParallel() {
+        return RecipeRecommendationService.recommendRecipes(recipes, pantryItems, user, 10, true);
+    }
+
+    @Benchmark
+    public List<Recipe> getRecipesYouCanMake() {
+        return RecipeRecommendationService.getRecipesYouCanMake(recipes, pantryItems);
+    }
+
+    @Benchmark
+    public List<String> getMissingIngredients() {
+        return RecipeRecommendationService.getMissingIngredients(sampleRecipe, pantryItems);
+    }
+
+    @Benchmark
+    public IngredientIndex buildIndex() {
+        return IngredientIndex.build(recipes);
+    }
+}
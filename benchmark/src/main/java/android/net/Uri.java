@@ -0,0 +1,7 @@
+package android.net;
+
+/**
+ * Compile stub for the benchmark module
+ */
+public abstract class Uri {
+}
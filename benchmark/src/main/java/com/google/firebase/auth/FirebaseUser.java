@@ -0,0 +1,16 @@
+package com.google.firebase.auth;
+
+import android.net.Uri;
+
+/**
+ * Compile stub for the benchmark module; only the members User reads
+ */
+public abstract class FirebaseUser {
+    public abstract String getUid();
+
+    public abstract String getDisplayName();
+
+    public abstract String getEmail();
+
+    public abstract Uri getPhotoUrl();
+}
@@ -0,0 +1,7 @@
+package com.google.firebase.firestore;
+
+/**
+ * Compile stub for the benchmark module
+ */
+public @interface DocumentId {
+}